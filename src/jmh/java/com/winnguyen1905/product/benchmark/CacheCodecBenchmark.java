@@ -0,0 +1,210 @@
+package com.winnguyen1905.product.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.winnguyen1905.product.common.constant.ProductStatus;
+import com.winnguyen1905.product.common.constant.ProductType;
+import com.winnguyen1905.product.config.cache.CacheCodec;
+import com.winnguyen1905.product.config.cache.CacheEntry;
+import com.winnguyen1905.product.config.cache.CachePolicyProperties.Serializer;
+import com.winnguyen1905.product.core.model.response.ProductResponse;
+import com.winnguyen1905.product.core.model.response.ProductVariantResponse;
+import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
+import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+/**
+ * Encode and decode time of the cache codecs on the two value shapes that
+ * dominate the caches: a product detail snapshot and a page of search
+ * results, both wrapped in a {@link CacheEntry} as stored. The baseline is
+ * the typed {@link GenericJackson2JsonRedisSerializer} the caches used before
+ * {@link CacheCodec}. The encoded size of each combination is printed once
+ * per trial. Needs no running services:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=CacheCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+  @Param({ "product-detail", "search-page" })
+  private String value;
+
+  @Param({ "generic-json", "json", "smile", "smile-lz4", "json-lz4" })
+  private String codecName;
+
+  private RedisSerializer<Object> codec;
+  private Object sample;
+  private byte[] encoded;
+
+  @Setup
+  public void prepare() {
+    Random random = new Random(42);
+    sample = switch (value) {
+      case "product-detail" -> new CacheEntry(productDetail(random), 12, Long.MAX_VALUE);
+      case "search-page" -> new CacheEntry(searchPage(random, 20), 35, Long.MAX_VALUE);
+      default -> throw new IllegalArgumentException("Unknown value " + value);
+    };
+    codec = switch (codecName) {
+      case "generic-json" -> baseline();
+      case "json" -> new CacheCodec(Serializer.JSON, false, 0);
+      case "smile" -> new CacheCodec(Serializer.SMILE, false, 0);
+      case "smile-lz4" -> new CacheCodec(Serializer.SMILE, true, 1024);
+      case "json-lz4" -> new CacheCodec(Serializer.JSON, true, 1024);
+      default -> throw new IllegalArgumentException("Unknown codec " + codecName);
+    };
+    encoded = codec.serialize(sample);
+    if (codec.deserialize(encoded) == null) {
+      throw new IllegalStateException(codecName + " does not round-trip " + value);
+    }
+    System.out.printf("%s / %s: %d bytes%n", value, codecName, encoded.length);
+  }
+
+  @Benchmark
+  public void encode(Blackhole blackhole) {
+    blackhole.consume(codec.serialize(sample));
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) {
+    blackhole.consume(codec.deserialize(encoded));
+  }
+
+  /**
+   * The serializer the caches used before {@link CacheCodec}; only ever reads
+   * bytes it wrote itself here
+   */
+  @SuppressWarnings("deprecation")
+  private static RedisSerializer<Object> baseline() {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+        ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+    return new GenericJackson2JsonRedisSerializer(objectMapper);
+  }
+
+  private static ProductResponse productDetail(Random random) {
+    UUID productId = UUID.randomUUID();
+    UUID vendorId = UUID.randomUUID();
+    List<ProductVariantResponse> variants = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(950), 0);
+      variants.add(ProductVariantResponse.builder()
+          .id(UUID.randomUUID())
+          .sku("SKU-" + random.nextInt(1_000_000))
+          .name("Wireless Headphones Pro - Color " + i)
+          .description("Over-ear noise cancelling headphones with 40h battery life")
+          .price(price)
+          .compareAtPrice(price.add(BigDecimal.TEN))
+          .isActive(true)
+          .isDefault(i == 0)
+          .weight(BigDecimal.valueOf(0.35))
+          .attributes(Map.of("color", "color-" + i, "size", "standard"))
+          .features(Map.of("bluetooth", "5.3", "anc", true))
+          .trackInventory(true)
+          .inventoryQuantity(random.nextInt(500))
+          .reservedQuantity(random.nextInt(10))
+          .availableQuantity(random.nextInt(490))
+          .vendorId(vendorId)
+          .region(RegionPartition.US)
+          .createdDate(Instant.now())
+          .updatedDate(Instant.now())
+          .productId(productId)
+          .productName("Wireless Headphones Pro")
+          .isAvailable(true)
+          .inStock(true)
+          .build());
+    }
+
+    return ProductResponse.builder()
+        .id(productId)
+        .name("Wireless Headphones Pro")
+        .description("Over-ear noise cancelling headphones with 40h battery life, multipoint pairing "
+            + "and a foldable design. Ships with a hard case and a USB-C cable.")
+        .shortDescription("Noise cancelling over-ear headphones")
+        .slug("wireless-headphones-pro")
+        .productType(ProductType.ELECTRONIC)
+        .status(ProductStatus.ACTIVE)
+        .isPublished(true)
+        .vendorId(vendorId)
+        .shopId(UUID.randomUUID())
+        .region(RegionPartition.US)
+        .brand(new ProductResponse.BrandInfo(UUID.randomUUID(), "Acme Audio", "ACME", null, true))
+        .category(new ProductResponse.CategoryInfo(UUID.randomUUID(), "Headphones", "HEADPHONES",
+            "electronics/audio/headphones", 3))
+        .minPrice(BigDecimal.valueOf(59))
+        .maxPrice(BigDecimal.valueOf(999))
+        .basePrice(BigDecimal.valueOf(199))
+        .features(Map.of("bluetooth", "5.3", "anc", true, "battery", "40h"))
+        .specifications(Map.of("driver", "40mm", "weight", "350g"))
+        .tags("audio,headphones,wireless,anc")
+        .trackInventory(true)
+        .viewCount(120_000L)
+        .purchaseCount(4_300L)
+        .ratingAverage(BigDecimal.valueOf(4.6))
+        .ratingCount(812)
+        .createdDate(Instant.now())
+        .updatedDate(Instant.now())
+        .variants(variants)
+        .images(List.of())
+        .inventory(new ProductResponse.InventorySummary(1200, 1100, 40, 60, true))
+        .build();
+  }
+
+  private static PagedResponse<ProductVariantReviewVm> searchPage(Random random, int size) {
+    List<ProductVariantReviewVm> content = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      content.add(ProductVariantReviewVm.builder()
+          .id(UUID.randomUUID())
+          .stock(random.nextInt(500))
+          .name("Wireless Headphones Pro " + i)
+          .sku("SKU-" + random.nextInt(1_000_000))
+          .price(50 + random.nextInt(950))
+          .productId(UUID.randomUUID())
+          .features(Map.of("bluetooth", "5.3", "anc", random.nextBoolean()))
+          .imageUrl("https://cdn.example.com/products/" + UUID.randomUUID() + "/main.webp")
+          .build());
+    }
+    return PagedResponse.<ProductVariantReviewVm>builder()
+        .content(content)
+        .pageNumber(0)
+        .pageSize(size)
+        .totalElements(1_000)
+        .totalPages(1_000 / size)
+        .isLastPage(false)
+        .build();
+  }
+}
@@ -0,0 +1,96 @@
+package com.winnguyen1905.product.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+/**
+ * Search requests to replay. A recorded corpus is read from the JSON-lines
+ * file named by {@code -Dbenchmark.search.corpus} (one
+ * {@link SearchProductRequest} per line); without one, a corpus is generated
+ * from the bundled vocabulary with a fixed seed, so every run replays the
+ * same requests without a database.
+ */
+public final class SearchCorpus {
+
+  private static final String VOCABULARY = "/benchmark/search-vocabulary.txt";
+
+  private SearchCorpus() {
+  }
+
+  public static List<SearchProductRequest> load(ObjectMapper objectMapper, int size, long seed) throws IOException {
+    String recorded = System.getProperty("benchmark.search.corpus");
+    if (recorded == null || recorded.isBlank()) {
+      return generate(size, seed);
+    }
+
+    List<SearchProductRequest> requests = new ArrayList<>();
+    for (String line : Files.readAllLines(Path.of(recorded), StandardCharsets.UTF_8)) {
+      if (!line.isBlank()) {
+        requests.add(objectMapper.readValue(line, SearchProductRequest.class));
+      }
+    }
+    return requests;
+  }
+
+  /**
+   * Mix of request shapes seen in production: keyword searches from product,
+   * brand and category names (some with a typo), browse requests without a
+   * keyword, deeper pages and sorted results, spread over all regions
+   */
+  static List<SearchProductRequest> generate(int size, long seed) throws IOException {
+    List<String> vocabulary = vocabulary();
+    Random random = new Random(seed);
+    RegionPartition[] regions = RegionPartition.values();
+    List<SearchProductRequest> requests = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int roll = random.nextInt(100);
+      String keyword = roll < 15 ? null : vocabulary.get(random.nextInt(vocabulary.size()));
+      if (keyword != null && roll >= 85 && keyword.length() > 4) {
+        keyword = keyword.substring(0, 2) + keyword.substring(3); // dropped letter
+      }
+
+      int page = random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(9);
+      List<SearchProductRequest.Sort> sorts = random.nextInt(5) == 0
+          ? List.of(new SearchProductRequest.Sort(random.nextBoolean() ? "asc" : "desc", "price"))
+          : null;
+
+      requests.add(SearchProductRequest.builder()
+          .keyword(keyword)
+          .sorts(sorts)
+          .pagination(new SearchProductRequest.Pagination(page, 20))
+          .region(regions[random.nextInt(regions.length)])
+          .enablePartitionFirst(random.nextInt(4) != 0)
+          .build());
+    }
+    return requests;
+  }
+
+  private static List<String> vocabulary() throws IOException {
+    List<String> terms = new ArrayList<>();
+    try (InputStream in = SearchCorpus.class.getResourceAsStream(VOCABULARY)) {
+      if (in == null) {
+        throw new IOException("Missing " + VOCABULARY);
+      }
+      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank() && !line.startsWith("#")) {
+          terms.add(line.trim());
+        }
+      }
+    }
+    return terms;
+  }
+}
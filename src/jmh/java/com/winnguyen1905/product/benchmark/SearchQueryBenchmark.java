@@ -0,0 +1,120 @@
+package com.winnguyen1905.product.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winnguyen1905.product.core.elasticsearch.query.ProductSearchQuery;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchProjection;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * Client-side cost of a search: {@link ProductSearchQuery} building the query
+ * for each request of the corpus, with the listing projection applied, and
+ * the query serialized to the JSON body the cluster would receive. Requests
+ * with partition-first enabled get the regional query, as in production.
+ * Needs no cluster or database:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.includes=SearchQueryBenchmark
+ * </pre>
+ *
+ * Add {@code -Dbenchmark.search.corpus=<file>} to replay recorded requests
+ * instead of the generated corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryBenchmark {
+
+  @Param("2000")
+  private int corpusSize;
+
+  @Param("42")
+  private long seed;
+
+  // Query building touches neither the cluster, the routing nor the telemetry
+  private final ProductSearchQuery productSearchQuery = new ProductSearchQuery(null, null, null);
+  private final JsonpMapper jsonpMapper = new JacksonJsonpMapper();
+
+  private List<SearchProductRequest> corpus;
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    SearchProductRequest next(List<SearchProductRequest> corpus) {
+      SearchProductRequest request = corpus.get(next);
+      next = (next + 1) % corpus.size();
+      return request;
+    }
+  }
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    corpus = SearchCorpus.load(new ObjectMapper().findAndRegisterModules(), corpusSize, seed);
+    if (corpus.isEmpty()) {
+      throw new IllegalStateException("Search corpus is empty");
+    }
+  }
+
+  @Benchmark
+  public void buildQuery(Cursor cursor, Blackhole blackhole) {
+    blackhole.consume(build(cursor.next(corpus)));
+  }
+
+  @Benchmark
+  public void buildAndSerializeQuery(Cursor cursor, Blackhole blackhole) {
+    blackhole.consume(toJson(build(cursor.next(corpus))));
+  }
+
+  private NativeQuery build(SearchProductRequest request) {
+    NativeQuery query = request.isPartitionFirstEnabled() && request.region() != null
+        ? productSearchQuery.buildPartitionSpecificQuery(request, request.region())
+        : productSearchQuery.buildSearchQuery(request);
+    return SearchProjection.LISTING.applyTo(query);
+  }
+
+  private String toJson(NativeQuery query) {
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(writer)) {
+      generator.writeStartObject();
+      if (query.getQuery() != null) {
+        generator.writeKey("query");
+        query.getQuery().serialize(generator, jsonpMapper);
+      }
+      generator.writeKey("sort");
+      generator.writeStartArray();
+      for (SortOptions sort : query.getSortOptions()) {
+        sort.serialize(generator, jsonpMapper);
+      }
+      generator.writeEnd();
+      generator.writeEnd();
+    }
+    return writer.toString();
+  }
+}
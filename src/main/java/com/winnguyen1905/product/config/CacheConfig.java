@@ -1,22 +0,0 @@
-package com.winnguyen1905.product.config;
-
-import com.github.benmanes.caffeine.cache.Caffeine;
-
-import java.util.concurrent.TimeUnit;
-
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class CacheConfig {
-  @Bean
-  public CacheManager cacheManager() {
-    CaffeineCacheManager cacheManager = new CaffeineCacheManager("productSearch");
-    cacheManager.setCaffeine(Caffeine.newBuilder()
-        .expireAfterWrite(10, TimeUnit.MINUTES) // Cache expires after 10 minutes
-        .maximumSize(1000)); // Max 1000 entries
-    return cacheManager;
-  }
-}
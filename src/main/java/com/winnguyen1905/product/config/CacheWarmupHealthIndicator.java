@@ -0,0 +1,37 @@
+package com.winnguyen1905.product.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import com.winnguyen1905.product.service.CacheWarmupService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Part of the readiness group: keeps the instance out of service until the
+ * cache warm-up has loaded enough of the hot set.
+ *
+ * Reports {@link #WARMING_UP} rather than OUT_OF_SERVICE. Only the readiness
+ * group lists that status in its order, so the main health endpoint ignores
+ * it while the warm-up runs instead of going OUT_OF_SERVICE too.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+  public static final Status WARMING_UP = new Status("WARMING_UP", "Cache warm-up in progress");
+
+  private final CacheWarmupService cacheWarmupService;
+
+  @Override
+  public Health health() {
+    CacheWarmupService.Progress progress = cacheWarmupService.progress();
+    Health.Builder builder = progress.warm() ? Health.up() : Health.status(WARMING_UP);
+    return builder
+        .withDetail("loaded", progress.loaded())
+        .withDetail("planned", progress.planned())
+        .build();
+  }
+}
@@ -0,0 +1,23 @@
+package com.winnguyen1905.product.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The products schema is generated by Hibernate, which runs after Flyway would.
+ * Migration is therefore left to {@link ProductTextSearchInitializer}, which
+ * runs it once the application has started and the tables exist.
+ */
+@Configuration
+@ConditionalOnClass(Flyway.class)
+public class FlywayConfiguration {
+
+  @Bean
+  public FlywayMigrationStrategy deferredFlywayMigrationStrategy() {
+    return flyway -> {
+    };
+  }
+}
@@ -0,0 +1,39 @@
+package com.winnguyen1905.product.config;
+
+import java.util.UUID;
+
+import com.winnguyen1905.product.persistance.entity.EInventory;
+
+/**
+ * Published after a stock row is written, carrying the quantity search needs
+ * to decide whether the indexed availability is still accurate.
+ */
+public class InventoryChangedEvent {
+  private final String sku;
+  private final UUID productId;
+  private final int quantityAvailable;
+
+  public InventoryChangedEvent(String sku, UUID productId, int quantityAvailable) {
+    this.sku = sku;
+    this.productId = productId;
+    this.quantityAvailable = quantityAvailable;
+  }
+
+  public static InventoryChangedEvent of(EInventory inventory) {
+    UUID productId = inventory.getProduct() != null ? inventory.getProduct().getId() : null;
+    int quantityAvailable = inventory.getQuantityAvailable() != null ? inventory.getQuantityAvailable() : 0;
+    return new InventoryChangedEvent(inventory.getSku(), productId, quantityAvailable);
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public int getQuantityAvailable() {
+    return quantityAvailable;
+  }
+}
@@ -0,0 +1,42 @@
+package com.winnguyen1905.product.config;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.winnguyen1905.product.persistance.entity.EProduct;
+import com.winnguyen1905.product.persistance.entity.EProductVariant;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+/**
+ * Published when a product is deleted. Carries the region and variant ids so
+ * the search index can route the delete without reading rows that may
+ * already be gone.
+ */
+public class ProductDeletedEvent {
+  private final UUID productId;
+  private final RegionPartition region;
+  private final List<UUID> variantIds;
+
+  public ProductDeletedEvent(UUID productId, RegionPartition region, List<UUID> variantIds) {
+    this.productId = productId;
+    this.region = region;
+    this.variantIds = List.copyOf(variantIds);
+  }
+
+  public static ProductDeletedEvent of(EProduct product) {
+    return new ProductDeletedEvent(product.getId(), product.getRegion(),
+        product.getVariants().stream().map(EProductVariant::getId).toList());
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public RegionPartition getRegion() {
+    return region;
+  }
+
+  public List<UUID> getVariantIds() {
+    return variantIds;
+  }
+}
@@ -0,0 +1,64 @@
+package com.winnguyen1905.product.config;
+
+import java.util.UUID;
+
+import com.winnguyen1905.product.persistance.entity.EProduct;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+/**
+ * Published when a customer views or buys a product. Consumed by the
+ * popularity rankings so hot-product listings never have to be scored on read.
+ */
+public class ProductEngagementEvent {
+
+  public enum Type {
+    VIEW, PURCHASE
+  }
+
+  private final UUID productId;
+  private final RegionPartition region;
+  private final UUID categoryId;
+  private final Type type;
+  private final int quantity;
+
+  public ProductEngagementEvent(UUID productId, RegionPartition region, UUID categoryId, Type type, int quantity) {
+    this.productId = productId;
+    this.region = region;
+    this.categoryId = categoryId;
+    this.type = type;
+    this.quantity = quantity;
+  }
+
+  public static ProductEngagementEvent view(EProduct product) {
+    return of(product, Type.VIEW, 1);
+  }
+
+  public static ProductEngagementEvent purchase(EProduct product, int quantity) {
+    return of(product, Type.PURCHASE, quantity);
+  }
+
+  private static ProductEngagementEvent of(EProduct product, Type type, int quantity) {
+    UUID categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+    return new ProductEngagementEvent(product.getId(), product.getRegion(), categoryId, type, quantity);
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public RegionPartition getRegion() {
+    return region;
+  }
+
+  public UUID getCategoryId() {
+    return categoryId;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getQuantity() {
+    return quantity;
+  }
+}
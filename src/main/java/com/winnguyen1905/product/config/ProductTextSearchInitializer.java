@@ -0,0 +1,147 @@
+package com.winnguyen1905.product.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.Location;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings the Hibernate-generated products table up to the db/migration scripts
+ * once it exists: a trigram GIN index on the product name and a GIN
+ * expression index over the full-text search vector. Both indexes are built
+ * CONCURRENTLY, so writes are not blocked while they build.
+ *
+ * PostgreSQL needs the pg_trgm extension from db/postgresql. CockroachDB has
+ * trigram and tsvector support built in from 22.2 and 23.1 respectively, so
+ * that location is skipped there; its JDBC driver reports "PostgreSQL", so it
+ * is told apart by {@code SELECT version()}. H2 has neither. Each feature
+ * counts as available only if its index exists and is valid; callers
+ * check {@link #isFullTextAvailable()} and {@link #isTrigramAvailable()} and
+ * keep the LIKE queries when a feature is missing.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)  // Before DatabaseInitializer seeds products
+@RequiredArgsConstructor
+public class ProductTextSearchInitializer implements CommandLineRunner {
+
+  // A failed CONCURRENTLY build leaves an invalid index behind that queries cannot use
+  private static final String VALID_INDEX_COUNT = "SELECT COUNT(*) FROM pg_class c "
+      + "JOIN pg_index i ON i.indexrelid = c.oid WHERE c.relname = ? AND i.indisvalid";
+
+  // CockroachDB backfills an index before making it public and rolls back a failed build
+  private static final String INDEX_COUNT = "SELECT COUNT(*) FROM pg_indexes WHERE indexname = ?";
+
+  private static final String POSTGRESQL_ONLY_LOCATION = "db/postgresql";
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectProvider<Flyway> flyway;
+
+  @Value("${product.text-search.enabled:true}")
+  private boolean enabled;
+
+  private volatile boolean trigramAvailable;
+  private volatile boolean fullTextAvailable;
+
+  @Override
+  public void run(String... args) {
+    if (!enabled) {
+      return;
+    }
+
+    String database = databaseProductName();
+    if (!"PostgreSQL".equalsIgnoreCase(database)) {
+      log.info("Database-side text search not supported on {}, keeping LIKE queries", database);
+      return;
+    }
+
+    boolean cockroach = isCockroachDb();
+    String engine = cockroach ? "CockroachDB" : database;
+
+    flyway.ifAvailable(migrations -> migrate(cockroach ? withoutPostgresqlOnly(migrations) : migrations));
+
+    String indexQuery = cockroach ? INDEX_COUNT : VALID_INDEX_COUNT;
+    trigramAvailable = isValidIndex(indexQuery, "idx_product_name_trgm");
+    fullTextAvailable = isValidIndex(indexQuery, "idx_product_search_vector");
+
+    log.info("Product text search on {}: full-text {}, trigram {}", engine,
+        fullTextAvailable ? "enabled" : "unavailable", trigramAvailable ? "enabled" : "unavailable");
+  }
+
+  public boolean isTrigramAvailable() {
+    return trigramAvailable;
+  }
+
+  public boolean isFullTextAvailable() {
+    return fullTextAvailable;
+  }
+
+  private void migrate(Flyway migrations) {
+    try {
+      migrations.migrate();
+    } catch (Exception e) {
+      // The schema history may now be partly applied and needs an operator to repair it
+      log.error("Schema migration failed, text search falls back to LIKE queries", e);
+    }
+  }
+
+  /**
+   * Same configuration minus the PostgreSQL-only scripts. A V1 recorded by an
+   * earlier run is tolerated rather than reported as missing.
+   */
+  private Flyway withoutPostgresqlOnly(Flyway migrations) {
+    Location[] locations = Arrays.stream(migrations.getConfiguration().getLocations())
+        .filter(location -> !POSTGRESQL_ONLY_LOCATION.equals(location.getPath()))
+        .toArray(Location[]::new);
+    return Flyway.configure()
+        .configuration(migrations.getConfiguration())
+        .locations(locations)
+        .ignoreMigrationPatterns("*:missing")
+        .load();
+  }
+
+  private boolean isCockroachDb() {
+    try {
+      String version = jdbcTemplate.queryForObject("SELECT version()", String.class);
+      return version != null && version.contains("CockroachDB");
+    } catch (Exception e) {
+      log.warn("Could not determine database version: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  private boolean isValidIndex(String query, String indexName) {
+    try {
+      Integer count = jdbcTemplate.queryForObject(query, Integer.class, indexName);
+      return count != null && count > 0;
+    } catch (Exception e) {
+      log.warn("Could not check index {}: {}", indexName, e.getMessage());
+      return false;
+    }
+  }
+
+  private String databaseProductName() {
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      return metaData.getDatabaseProductName();
+    } catch (Exception e) {
+      log.warn("Could not determine database product: {}", e.getMessage());
+      return "unknown";
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.winnguyen1905.product.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +16,8 @@ import org.springframework.context.ApplicationEventPublisherAware;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.SocketOptions;
 import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.resource.ClientResources;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
@@ -26,8 +29,12 @@ import java.util.UUID;
  */
 @Slf4j
 @Configuration
+@RequiredArgsConstructor
 public class RedisConfig implements MessageListener, ApplicationEventPublisherAware {
 
+  // Spring Boot's Lettuce resources, which carry the command latency recorder
+  private final ObjectProvider<ClientResources> clientResources;
+
   private ApplicationEventPublisher eventPublisher;
 
   @Override
@@ -89,7 +96,9 @@ public class RedisConfig implements MessageListener, ApplicationEventPublisherAw
    * Configures Lettuce client settings.
    */
   private LettuceClientConfiguration lettuceClientConfiguration() {
-    return LettuceClientConfiguration.builder()
+    LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder();
+    clientResources.ifAvailable(builder::clientResources);
+    return builder
         .commandTimeout(Duration.ofMillis(redisTimeout))
         .clientOptions(ClientOptions.builder()
             .autoReconnect(true)
@@ -3,9 +3,22 @@ package com.winnguyen1905.product.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.winnguyen1905.product.config.cache.BatchRedisCacheManager;
+import com.winnguyen1905.product.config.cache.CacheCodec;
+import com.winnguyen1905.product.config.cache.CacheInvalidationPublisher;
+import com.winnguyen1905.product.config.cache.CacheLoadCoordinator;
+import com.winnguyen1905.product.config.cache.CachePolicyProperties;
+import com.winnguyen1905.product.config.cache.RegionalRedisConnectionFactory;
+import com.winnguyen1905.product.config.cache.TieredCacheManager;
 import com.winnguyen1905.product.secure.RegionPartition;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
@@ -20,14 +33,20 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Regional Redis caching configuration that partitions cache data by user
@@ -37,8 +56,14 @@ import java.time.Duration;
 @Slf4j
 @Configuration
 @EnableCaching
+@RequiredArgsConstructor
 public class RegionalCacheConfiguration implements CachingConfigurer {
 
+  private final CachePolicyProperties cachePolicies;
+  private final MeterRegistry meterRegistry;
+  // Spring Boot's Lettuce resources, which carry the command latency recorder
+  private final ObjectProvider<ClientResources> clientResources;
+
   @Value("${spring.data.redis.host:localhost}")
   private String redisHost;
 
@@ -49,26 +74,100 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
   private String redisPassword;
 
   /**
-   * Regional cache manager that routes cache operations to region-specific Redis
-   * databases
+   * Tiered cache manager: a per-instance Caffeine L1 in front of the shared
+   * Redis caches, kept coherent across instances through Redis pub/sub, with
+   * stampede protection on expiry
    */
   @Primary
   @Bean
   @Override
   public CacheManager cacheManager() {
-    // Create simple cache manager using default connection factory for now
-    // The regional routing will be handled at the application level
-    RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-        .entryTtl(Duration.ofHours(24))
+    return new TieredCacheManager(redisCacheManager(), sharedRedisCacheManager(), cacheInvalidationPublisher(),
+        cacheLoadCoordinator(), sharedCacheLoadCoordinator(), cachePolicies, meterRegistry);
+  }
+
+  /**
+   * Redis (L2) cache manager shared by all instances, routed to the Redis of
+   * the request's region. Caches with a policy in {@code cache.policies} get
+   * their own TTL and serializer, the rest use {@code cache.defaults}
+   */
+  @Bean
+  public RedisCacheManager redisCacheManager() {
+    // Batch-capable caches (MGET reads, pipelined writes), statistics enabled for cache.gets hit/miss
+    return new BatchRedisCacheManager(regionalRedisConnectionFactory(),
+        redisCacheConfiguration(cachePolicies.defaultPolicy()), perCacheConfigurations(true));
+  }
+
+  /**
+   * Redis (L2) cache manager of the caches whose policy is not regional: their
+   * values are the same in every region, so they live once, in the default
+   * (US) Redis, instead of being loaded and stored per region
+   */
+  @Bean
+  public RedisCacheManager sharedRedisCacheManager() {
+    return new BatchRedisCacheManager(redisConnectionFactory(),
+        redisCacheConfiguration(cachePolicies.defaultPolicy()), perCacheConfigurations(false));
+  }
+
+  private Map<String, RedisCacheConfiguration> perCacheConfigurations(boolean regional) {
+    Map<String, RedisCacheConfiguration> perCache = new LinkedHashMap<>();
+    cachePolicies.getPolicies().keySet().forEach(name -> {
+      CachePolicyProperties.Policy policy = cachePolicies.resolve(name);
+      if (policy.getRegional() == regional) {
+        perCache.put(name, redisCacheConfiguration(policy));
+      }
+    });
+    return perCache;
+  }
+
+  private RedisCacheConfiguration redisCacheConfiguration(CachePolicyProperties.Policy policy) {
+    return RedisCacheConfiguration.defaultCacheConfig()
+        .entryTtl(policy.getTtl())
         .serializeKeysWith(RedisSerializationContext.SerializationPair
             .fromSerializer(new StringRedisSerializer()))
-        .serializeValuesWith(RedisSerializationContext.SerializationPair
-            .fromSerializer(new Jackson2JsonRedisSerializer<>(new ObjectMapper(), Object.class)))
+        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new CacheCodec(
+            policy.getSerializer(), policy.getCompression(), policy.getCompressionThreshold())))
         .disableCachingNullValues();
+  }
 
-    return RedisCacheManager.builder(redisConnectionFactory())
-        .cacheDefaults(config)
-        .build();
+  /**
+   * Single-flight loading of missing cache keys across instances
+   */
+  @Bean
+  public CacheLoadCoordinator cacheLoadCoordinator() {
+    // Locks live next to the entries they guard, so waiters poll the region the leader writes to
+    StringRedisTemplate template = new StringRedisTemplate(regionalRedisConnectionFactory());
+    return new CacheLoadCoordinator(template, cachePolicies.getStampede());
+  }
+
+  /**
+   * Single-flight loading for the shared caches, locking in the Redis they live in
+   */
+  @Bean
+  public CacheLoadCoordinator sharedCacheLoadCoordinator() {
+    StringRedisTemplate template = new StringRedisTemplate(redisConnectionFactory());
+    return new CacheLoadCoordinator(template, cachePolicies.getStampede());
+  }
+
+  /**
+   * Publishes L1 invalidations and applies the ones received from other
+   * instances
+   */
+  @Bean
+  public CacheInvalidationPublisher cacheInvalidationPublisher() {
+    StringRedisTemplate template = new StringRedisTemplate(redisConnectionFactory());
+    return new CacheInvalidationPublisher(template);
+  }
+
+  /**
+   * Subscribes to the cache invalidation channel
+   */
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer() {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory());
+    container.addMessageListener(cacheInvalidationPublisher(), new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+    return container;
   }
 
   /**
@@ -85,7 +184,7 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
    */
   @Bean
   public RedisConnectionFactory usRedisConnectionFactory() {
-    return createRedisConnectionFactory(0);
+    return createRedisConnectionFactory(RegionPartition.US, 0);
   }
 
   /**
@@ -93,7 +192,7 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
    */
   @Bean
   public RedisConnectionFactory euRedisConnectionFactory() {
-    return createRedisConnectionFactory(1);
+    return createRedisConnectionFactory(RegionPartition.EU, 1);
   }
 
   /**
@@ -101,7 +200,28 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
    */
   @Bean
   public RedisConnectionFactory asiaRedisConnectionFactory() {
-    return createRedisConnectionFactory(2);
+    return createRedisConnectionFactory(RegionPartition.ASIA, 2);
+  }
+
+  /**
+   * Connection factory of the current request's region, for the caches
+   */
+  @Bean
+  public RegionalRedisConnectionFactory regionalRedisConnectionFactory() {
+    Map<RegionPartition, RedisConnectionFactory> factories = new EnumMap<>(RegionPartition.class);
+    factories.put(RegionPartition.US, usRedisConnectionFactory());
+    factories.put(RegionPartition.EU, euRedisConnectionFactory());
+    factories.put(RegionPartition.ASIA, asiaRedisConnectionFactory());
+    return new RegionalRedisConnectionFactory(factories, RegionalCacheConfiguration::currentRegion);
+  }
+
+  /**
+   * Active, idle and waiting connections of each region's pool, tagged
+   * {@code name=redis-<region>}
+   */
+  @Bean
+  public CommonsObjectPool2Metrics redisPoolMetrics() {
+    return new CommonsObjectPool2Metrics();
   }
 
   /**
@@ -156,9 +276,11 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
   }
 
   /**
-   * Create Redis connection factory for specific database
+   * Create a pooled Redis connection factory for a region's database. The
+   * native connection is not shared, so every operation borrows from the
+   * region's pool and {@code cache.regions.<region>} sizing applies
    */
-  private RedisConnectionFactory createRedisConnectionFactory(int database) {
+  private RedisConnectionFactory createRedisConnectionFactory(RegionPartition region, int database) {
     RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
     config.setHostName(redisHost);
     config.setPort(redisPort);
@@ -168,9 +290,23 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
       config.setPassword(redisPassword);
     }
 
-    LettuceConnectionFactory factory = new LettuceConnectionFactory(config);
+    CachePolicyProperties.RegionPool pool = cachePolicies.regionPool(region);
+    GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+    poolConfig.setMaxTotal(pool.getMaxActive());
+    poolConfig.setMaxIdle(pool.getMaxIdle());
+    poolConfig.setMinIdle(pool.getMinIdle());
+    poolConfig.setMaxWait(pool.getMaxWait());
+    poolConfig.setJmxNamePrefix("redis-" + region.getCode());
+
+    LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder clientConfig =
+        LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+    clientResources.ifAvailable(clientConfig::clientResources);
+
+    LettuceConnectionFactory factory = new LettuceConnectionFactory(config, clientConfig.build());
+    factory.setShareNativeConnection(false);
     factory.afterPropertiesSet(); // Initialize the connection factory
-    log.info("Creating Redis connection factory for database {} (region cache)", database);
+    log.info("Creating Redis connection factory for region {} (database {}, max {} connections)",
+        region.getCode(), database, pool.getMaxActive());
 
     return factory;
   }
@@ -185,8 +321,7 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
     // JSON serialization configuration
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-    objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
-        ObjectMapper.DefaultTyping.NON_FINAL);
+    objectMapper.activateDefaultTyping(CacheCodec.TYPE_VALIDATOR, ObjectMapper.DefaultTyping.NON_FINAL);
     
     Jackson2JsonRedisSerializer<Object> jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
 
@@ -200,6 +335,31 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
     return template;
   }
 
+  /**
+   * Region of the current request: the regional context if set, else the
+   * X-Region-Code header, else US
+   */
+  public static RegionPartition currentRegion() {
+    try {
+      RegionPartition region = RegionalDataSourceConfiguration.RegionalContext.getCurrentRegion();
+      if (region != null) {
+        return region;
+      }
+
+      ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+      if (attributes != null) {
+        String regionCode = attributes.getRequest().getHeader("X-Region-Code");
+        if (regionCode != null) {
+          return RegionPartition.fromCode(regionCode);
+        }
+      }
+    } catch (Exception e) {
+      log.debug("Error determining region for cache routing: {}", e.getMessage());
+    }
+
+    return RegionPartition.US;
+  }
+
   /**
    * Regional key generator that prefixes keys with region information
    */
@@ -207,7 +367,7 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
 
     @Override
     public Object generate(Object target, java.lang.reflect.Method method, Object... params) {
-      RegionPartition region = getCurrentRegion();
+      RegionPartition region = currentRegion();
       String baseKey = generateBaseKey(target, method, params);
       String regionalKey = region.getCode() + ":" + baseKey;
 
@@ -238,27 +398,6 @@ public class RegionalCacheConfiguration implements CachingConfigurer {
 
       return sb.toString();
     }
-
-    private RegionPartition getCurrentRegion() {
-      try {
-        RegionPartition region = RegionalDataSourceConfiguration.RegionalContext.getCurrentRegion();
-        if (region != null) {
-          return region;
-        }
-
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        if (attributes != null) {
-          String regionCode = attributes.getRequest().getHeader("X-Region-Code");
-          if (regionCode != null) {
-            return RegionPartition.fromCode(regionCode);
-          }
-        }
-      } catch (Exception e) {
-        log.debug("Error determining region for cache key generation: {}", e.getMessage());
-      }
-
-      return RegionPartition.US;
-    }
   }
 
   /**
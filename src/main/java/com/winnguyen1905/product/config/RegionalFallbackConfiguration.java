@@ -1,9 +1,12 @@
 package com.winnguyen1905.product.config;
 
+import com.winnguyen1905.product.exception.BaseException;
+import com.winnguyen1905.product.exception.BusinessLogicException;
 import com.winnguyen1905.product.secure.RegionPartition;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.validation.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +33,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @EnableAsync
 public class RegionalFallbackConfiguration {
 
+    public static final String SEARCH_CIRCUIT_BREAKER = "elasticsearch-search";
+
     /**
      * Circuit breaker registry for regional services
      */
@@ -57,6 +62,18 @@ public class RegionalFallbackConfiguration {
                         event.getStateTransition().getToState()));
         }
         
+        // Search: only infrastructure failures (SearchUnavailableException and unwrapped client errors)
+        // count, a rejected request says nothing about the cluster
+        CircuitBreaker searchCircuitBreaker = registry.circuitBreaker(SEARCH_CIRCUIT_BREAKER,
+                CircuitBreakerConfig.from(config)
+                        .ignoreExceptions(BaseException.class, BusinessLogicException.class,
+                                ValidationException.class, IllegalArgumentException.class)
+                        .build());
+        searchCircuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker {} transitioned from {} to {}",
+                        SEARCH_CIRCUIT_BREAKER, event.getStateTransition().getFromState(),
+                        event.getStateTransition().getToState()));
+
         return registry;
     }
 
@@ -0,0 +1,116 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+/**
+ * {@link RedisCache} with multi-key reads and writes: {@link #getAll} is one
+ * MGET and {@link #putAll} one pipeline of SETs. Keys and values go through
+ * the cache's own prefix and codec, so batch and single-key operations see the
+ * same entries, and both count towards the cache's statistics.
+ *
+ * Over a {@link RegionalRedisConnectionFactory}, reads and writes go to the
+ * current region's Redis while evictions and clears go to every region, since
+ * a key may have been cached by requests from any of them.
+ */
+public class BatchRedisCache extends RedisCache {
+
+  private final RedisConnectionFactory connectionFactory;
+  private final CacheStatisticsCollector statistics;
+
+  protected BatchRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+      RedisConnectionFactory connectionFactory, CacheStatisticsCollector statistics) {
+    super(name, cacheWriter, cacheConfiguration);
+    this.connectionFactory = connectionFactory;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public void evict(Object key) {
+    inEveryRegion(() -> super.evict(key));
+  }
+
+  @Override
+  public void clear() {
+    inEveryRegion(super::clear);
+  }
+
+  /**
+   * Stored values of the given keys, read with one MGET. Absent keys are left
+   * out of the result.
+   */
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    if (keys.isEmpty()) {
+      return Map.of();
+    }
+    List<Object> keyList = new ArrayList<>(keys);
+    byte[][] rawKeys = new byte[keyList.size()][];
+    for (int i = 0; i < rawKeys.length; i++) {
+      rawKeys[i] = serializeCacheKey(createCacheKey(keyList.get(i)));
+    }
+
+    List<byte[]> rawValues;
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      rawValues = connection.stringCommands().mGet(rawKeys);
+    }
+
+    Map<Object, Object> values = new HashMap<>();
+    for (int i = 0; i < keyList.size(); i++) {
+      byte[] rawValue = rawValues != null && i < rawValues.size() ? rawValues.get(i) : null;
+      Object value = rawValue != null ? deserializeCacheValue(rawValue) : null;
+      statistics.incGets(getName());
+      if (value != null) {
+        statistics.incHits(getName());
+        values.put(keyList.get(i), value);
+      } else {
+        statistics.incMisses(getName());
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Store all entries in one pipeline, each with the TTL the cache
+   * configuration gives it
+   */
+  public void putAll(Map<?, ?> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      connection.openPipeline();
+      try {
+        entries.forEach((key, value) -> {
+          Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+          connection.stringCommands().set(serializeCacheKey(createCacheKey(key)), serializeCacheValue(value),
+              ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+              RedisStringCommands.SetOption.upsert());
+          statistics.incPuts(getName());
+        });
+      } finally {
+        connection.closePipeline();
+      }
+    }
+  }
+
+  private void inEveryRegion(Runnable action) {
+    if (connectionFactory instanceof RegionalRedisConnectionFactory regional) {
+      regional.forEachRegion(region -> action.run());
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.util.Map;
+
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Redis cache manager whose caches are {@link BatchRedisCache}s. Statistics
+ * are always enabled, as with {@code RedisCacheManager.builder().enableStatistics()}.
+ */
+public class BatchRedisCacheManager extends RedisCacheManager {
+
+  private final RedisConnectionFactory connectionFactory;
+  private final CacheStatisticsCollector statistics;
+
+  public BatchRedisCacheManager(RedisConnectionFactory connectionFactory, RedisCacheConfiguration defaults,
+      Map<String, RedisCacheConfiguration> initialCaches) {
+    this(connectionFactory, CacheStatisticsCollector.create(), defaults, initialCaches);
+  }
+
+  private BatchRedisCacheManager(RedisConnectionFactory connectionFactory, CacheStatisticsCollector statistics,
+      RedisCacheConfiguration defaults, Map<String, RedisCacheConfiguration> initialCaches) {
+    super(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory).withStatisticsCollector(statistics),
+        defaults, true, initialCaches);
+    this.connectionFactory = connectionFactory;
+    this.statistics = statistics;
+  }
+
+  @Override
+  protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+    return new BatchRedisCache(name, getCacheWriter(),
+        cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(),
+        connectionFactory, statistics);
+  }
+}
@@ -0,0 +1,222 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Redis value codec for the caches. Every value starts with a four byte
+ * header:
+ *
+ * <pre>
+ * magic (0xCA) | codec version | format | flags
+ * </pre>
+ *
+ * followed by the encoded value, or by its length and LZ4 block when the
+ * compression flag is set. Values are written in the cache's configured format
+ * but read in whatever format their header names, so a cache can switch
+ * format without flushing. A value from an unknown codec version, or from
+ * before the header existed, reads as a miss and gets recomputed, which keeps
+ * old and new instances safe to run side by side during a rolling upgrade.
+ *
+ * SMILE is binary JSON: the same typed Jackson model as JSON, but property
+ * names and repeated short strings (including the type ids) are written once
+ * and back-referenced. Type ids are only resolved for the packages of
+ * {@link #TYPE_VALIDATOR}, so a value written to Redis by anyone else cannot
+ * make the reader instantiate an arbitrary class. There is deliberately no
+ * Java serialization format, since it would bypass that check.
+ */
+@Slf4j
+public class CacheCodec implements RedisSerializer<Object> {
+
+  private static final byte MAGIC = (byte) 0xCA;
+  private static final byte VERSION = 1;
+  private static final byte FLAG_LZ4 = 1;
+  private static final int HEADER_BYTES = 4;
+  // Bound on the declared length of a compressed value, checked before allocating for it
+  private static final int MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+  /** Classes a cached type id may name */
+  public static final PolymorphicTypeValidator TYPE_VALIDATOR = BasicPolymorphicTypeValidator.builder()
+      .allowIfSubType("com.winnguyen1905.")
+      .allowIfSubType("java.util.")
+      .allowIfSubType("java.time.")
+      .allowIfSubType("java.math.")
+      // Boxed numbers Jackson does not treat as natural types, e.g. inside Object-typed fields
+      .allowIfSubType(Long.class)
+      .allowIfSubType(Short.class)
+      .allowIfSubType(Byte.class)
+      .allowIfSubType(Float.class)
+      .build();
+
+  private static final ObjectMapper JSON_MAPPER = typedMapper(new JsonFactory());
+  private static final ObjectMapper SMILE_MAPPER = typedMapper(SmileFactory.builder()
+      .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+      .build());
+  // Written as Object so the root value carries its type id even when its class is final
+  private static final ObjectWriter JSON_WRITER = JSON_MAPPER.writerFor(Object.class);
+  private static final ObjectWriter SMILE_WRITER = SMILE_MAPPER.writerFor(Object.class);
+  private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+  private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+  private final CachePolicyProperties.Serializer format;
+  private final boolean compression;
+  private final int compressionThreshold;
+
+  /**
+   * @param compressionThreshold encoded size in bytes from which LZ4 is tried
+   */
+  public CacheCodec(CachePolicyProperties.Serializer format, boolean compression, int compressionThreshold) {
+    this.format = format;
+    this.compression = compression;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return null;
+    }
+
+    byte[] body = encode(format, value);
+    byte flags = 0;
+    if (compression && body.length >= compressionThreshold) {
+      byte[] compressed = LZ4_COMPRESSOR.compress(body);
+      // Incompressible values are stored as they are
+      if (compressed.length + Integer.BYTES < body.length) {
+        body = ByteBuffer.allocate(Integer.BYTES + compressed.length)
+            .putInt(body.length)
+            .put(compressed)
+            .array();
+        flags |= FLAG_LZ4;
+      }
+    }
+
+    return ByteBuffer.allocate(HEADER_BYTES + body.length)
+        .put(MAGIC)
+        .put(VERSION)
+        .put(formatId(format))
+        .put(flags)
+        .put(body)
+        .array();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes.length < HEADER_BYTES || bytes[0] != MAGIC || bytes[1] != VERSION) {
+      log.debug("Ignoring cache value without a known codec header");
+      return null;
+    }
+
+    CachePolicyProperties.Serializer valueFormat = formatOf(bytes[2]);
+    if (valueFormat == null) {
+      log.debug("Ignoring cache value in unknown format {}", bytes[2]);
+      return null;
+    }
+    byte[] body;
+    if ((bytes[3] & FLAG_LZ4) != 0) {
+      if (bytes.length < HEADER_BYTES + Integer.BYTES) {
+        log.debug("Ignoring truncated compressed cache value");
+        return null;
+      }
+      int length = ByteBuffer.wrap(bytes, HEADER_BYTES, Integer.BYTES).getInt();
+      if (length < 0 || length > MAX_DECOMPRESSED_BYTES) {
+        log.debug("Ignoring compressed cache value declaring {} bytes", length);
+        return null;
+      }
+      body = decompress(bytes, length);
+    } else {
+      body = new byte[bytes.length - HEADER_BYTES];
+      System.arraycopy(bytes, HEADER_BYTES, body, 0, body.length);
+    }
+    return decode(valueFormat, body);
+  }
+
+  private static byte[] decompress(byte[] bytes, int length) {
+    int offset = HEADER_BYTES + Integer.BYTES;
+    byte[] body = new byte[length];
+    try {
+      int written = LZ4_DECOMPRESSOR.decompress(bytes, offset, bytes.length - offset, body, 0, length);
+      if (written != length) {
+        throw new SerializationException("Compressed cache value has " + written + " bytes, declared " + length);
+      }
+    } catch (LZ4Exception e) {
+      throw new SerializationException("Could not decompress cache value", e);
+    }
+    return body;
+  }
+
+  // Wire ids are fixed; never reuse one for a different format. 1 was Java
+  // serialization and now reads as a miss.
+  private static byte formatId(CachePolicyProperties.Serializer format) {
+    return switch (format) {
+      case JSON -> 0;
+      case SMILE -> 2;
+    };
+  }
+
+  private static CachePolicyProperties.Serializer formatOf(byte id) {
+    return switch (id) {
+      case 0 -> CachePolicyProperties.Serializer.JSON;
+      case 2 -> CachePolicyProperties.Serializer.SMILE;
+      default -> null;
+    };
+  }
+
+  private static byte[] encode(CachePolicyProperties.Serializer format, Object value) {
+    try {
+      return switch (format) {
+        case JSON -> JSON_WRITER.writeValueAsBytes(value);
+        case SMILE -> SMILE_WRITER.writeValueAsBytes(value);
+      };
+    } catch (Exception e) {
+      throw new SerializationException("Could not encode cache value as " + format, e);
+    }
+  }
+
+  private static Object decode(CachePolicyProperties.Serializer format, byte[] body) {
+    try {
+      return switch (format) {
+        case JSON -> JSON_MAPPER.readValue(body, Object.class);
+        case SMILE -> SMILE_MAPPER.readValue(body, Object.class);
+      };
+    } catch (Exception e) {
+      throw new SerializationException("Could not decode cache value as " + format, e);
+    }
+  }
+
+  /**
+   * Mapper that records each value's class, so cached records come back as
+   * the same type instead of as maps
+   */
+  private static ObjectMapper typedMapper(JsonFactory factory) {
+    ObjectMapper objectMapper = new ObjectMapper(factory)
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    objectMapper.activateDefaultTyping(TYPE_VALIDATOR, ObjectMapper.DefaultTyping.NON_FINAL,
+        JsonTypeInfo.As.PROPERTY);
+    return objectMapper;
+  }
+}
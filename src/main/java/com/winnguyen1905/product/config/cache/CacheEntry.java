@@ -0,0 +1,28 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What {@link TieredCache} stores in Redis: the value plus how long it took to
+ * compute and when it expires, the two inputs of XFetch early recomputation.
+ *
+ * @param value         cached value
+ * @param computeMillis time the loader took, 0 if unknown
+ * @param expiresAt     epoch millis at which Redis drops the entry
+ */
+public record CacheEntry(Object value, long computeMillis, long expiresAt) implements Serializable {
+
+  /**
+   * XFetch: recompute early with a probability that rises as expiry
+   * approaches and with the cost of recomputing. Across many readers this
+   * spreads one refresh ahead of expiry instead of a burst of misses at it.
+   */
+  public boolean shouldRefreshEarly(double beta, long now) {
+    if (beta <= 0 || computeMillis <= 0) {
+      return false;
+    }
+    double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+    return now - computeMillis * beta * Math.log(random) >= expiresAt;
+  }
+}
@@ -0,0 +1,68 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.util.UUID;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub and applies the ones sent by
+ * other instances. Messages from this instance are ignored, its own L1 was
+ * already updated when the write happened. Delivery is best effort; a lost
+ * message is bounded by the L1 TTL.
+ */
+@Slf4j
+public class CacheInvalidationPublisher implements MessageListener {
+
+  public static final String CHANNEL = "cache:invalidation";
+
+  public record InvalidationMessage(String origin, String cache, String key) {
+  }
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final StringRedisTemplate redisTemplate;
+  private TieredCacheManager cacheManager;
+
+  public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  void setCacheManager(TieredCacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  public void publishEvict(String cacheName, String key) {
+    publish(new InvalidationMessage(instanceId, cacheName, key));
+  }
+
+  public void publishClear(String cacheName) {
+    publish(new InvalidationMessage(instanceId, cacheName, null));
+  }
+
+  private void publish(InvalidationMessage invalidation) {
+    try {
+      redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(invalidation));
+    } catch (Exception e) {
+      log.warn("Failed to broadcast invalidation for cache {}: {}", invalidation.cache(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      InvalidationMessage invalidation = objectMapper.readValue(message.getBody(), InvalidationMessage.class);
+      if (instanceId.equals(invalidation.origin()) || cacheManager == null) {
+        return;
+      }
+      cacheManager.invalidateLocal(invalidation.cache(), invalidation.key());
+    } catch (Exception e) {
+      log.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-flight for cache misses, within an instance and across instances.
+ *
+ * Concurrent misses for a key on one instance share one future. The thread
+ * that owns it then takes a short Redis lock: with the lock it runs the
+ * loader, without it another instance is already loading, so it polls Redis
+ * for that result and only loads itself if nothing shows up in time. A failed
+ * lock call (Redis down) degrades to loading locally, and so does a waiter
+ * whose leader on this instance takes too long.
+ */
+@Slf4j
+public class CacheLoadCoordinator {
+
+  private static final String LOCK_PREFIX = "cache-lock:";
+
+  // Delete the lock only if it is still ours; it may have expired and been taken over
+  private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final CachePolicyProperties.Stampede settings;
+  private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  public CacheLoadCoordinator(StringRedisTemplate redisTemplate, CachePolicyProperties.Stampede settings) {
+    this.redisTemplate = redisTemplate;
+    this.settings = settings;
+  }
+
+  /**
+   * Load a missing value once.
+   *
+   * @param lockKey      cache name and key, unique across caches
+   * @param remoteLookup reads the value another instance may have stored, null if absent
+   * @param loader       computes and stores the value
+   */
+  public Object load(String lockKey, Supplier<Object> remoteLookup, Supplier<Object> loader) {
+    CompletableFuture<Object> ours = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(lockKey, ours);
+    if (existing != null) {
+      return await(lockKey, existing, remoteLookup, loader);
+    }
+
+    try {
+      Object value = loadOnce(lockKey, remoteLookup, loader);
+      ours.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      ours.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(lockKey, ours);
+    }
+  }
+
+  /**
+   * Take the lock without waiting, used by early refresh so only one caller
+   * recomputes ahead of expiry. Returns the lock token, or null if another
+   * caller holds it.
+   */
+  public String tryLock(String lockKey) {
+    try {
+      return acquire(lockKey);
+    } catch (Exception e) {
+      log.debug("Cache lock unavailable for {}: {}", lockKey, e.getMessage());
+      return null;
+    }
+  }
+
+  public void unlock(String lockKey, String token) {
+    try {
+      redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_PREFIX + lockKey), token);
+    } catch (Exception e) {
+      log.debug("Failed to release cache lock {}, it expires on its own: {}", lockKey, e.getMessage());
+    }
+  }
+
+  private String acquire(String lockKey) {
+    String token = UUID.randomUUID().toString();
+    Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + lockKey, token, settings.getLockTtl());
+    return Boolean.TRUE.equals(acquired) ? token : null;
+  }
+
+  private Object loadOnce(String lockKey, Supplier<Object> remoteLookup, Supplier<Object> loader) {
+    String token;
+    try {
+      token = acquire(lockKey);
+    } catch (Exception e) {
+      log.debug("Cache lock unavailable for {}, loading without it: {}", lockKey, e.getMessage());
+      return loader.get();
+    }
+    if (token != null) {
+      try {
+        return loader.get();
+      } finally {
+        unlock(lockKey, token);
+      }
+    }
+
+    // Another instance holds the lock
+    long deadline = System.nanoTime() + settings.getWaitTimeout().toNanos();
+    long pollMillis = settings.getPollInterval().toMillis();
+    while (System.nanoTime() < deadline) {
+      Object value = remoteLookup.get();
+      if (value != null) {
+        return value;
+      }
+      try {
+        Thread.sleep(pollMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return loader.get();
+  }
+
+  /**
+   * Wait for the load another thread of this instance is running. If it takes
+   * longer than that thread may wait for another instance plus the lock TTL,
+   * it is stuck; read what has been stored meanwhile or load independently
+   * rather than fail the request.
+   */
+  private Object await(String lockKey, CompletableFuture<Object> leader, Supplier<Object> remoteLookup,
+      Supplier<Object> loader) {
+    Duration timeout = settings.getWaitTimeout().plus(settings.getLockTtl());
+    try {
+      return leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Cache load failed for " + lockKey, e.getCause());
+    } catch (TimeoutException e) {
+      log.warn("Timed out waiting for cache load of {}, loading independently", lockKey);
+      Object stored = remoteLookup.get();
+      return stored != null ? stored : loader.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for cache load of " + lockKey);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.stereotype.Component;
+
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import lombok.Data;
+
+/**
+ * Per-cache policies, bound from the {@code cache} block of application.yaml.
+ * Every setting left out of a named policy falls back to {@code cache.defaults},
+ * and caches without a policy use the defaults as-is:
+ *
+ * <pre>
+ * cache:
+ *   defaults:
+ *     ttl: 24h
+ *   policies:
+ *     inventory:
+ *       ttl: 30s
+ *       local-enabled: false
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CachePolicyProperties {
+
+  @NestedConfigurationProperty
+  private Policy defaults = Policy.builtIn();
+
+  private Map<String, Policy> policies = new LinkedHashMap<>();
+
+  @NestedConfigurationProperty
+  private Stampede stampede = new Stampede();
+
+  @NestedConfigurationProperty
+  private Stats stats = new Stats();
+
+  /** Connection pool of each region's Redis, keyed by region code */
+  private Map<String, RegionPool> regions = new LinkedHashMap<>();
+
+  public enum Serializer {
+    /** Jackson JSON, readable with redis-cli */
+    JSON,
+    /** Jackson Smile, binary JSON; smaller and faster to parse than JSON */
+    SMILE
+  }
+
+  @Data
+  public static class Policy {
+    /** Redis (L2) time to live */
+    private Duration ttl;
+    /** Whether the cache has a per-instance Caffeine L1 */
+    private Boolean localEnabled;
+    /** Maximum L1 entries per instance */
+    private Long localMaxEntries;
+    /** L1 time to live, bounds staleness if an invalidation is lost */
+    private Duration localTtl;
+    /**
+     * Keep L1 values encoded and hand every reader its own decoded copy, so a
+     * caller mutating a result cannot change what other callers get. Only
+     * caches of immutable values should turn it off.
+     */
+    private Boolean localStoreByValue;
+    private Serializer serializer;
+    /** LZ4-compress values in Redis from compressionThreshold bytes */
+    private Boolean compression;
+    private Integer compressionThreshold;
+    /** XFetch eagerness; above 1 refreshes earlier, 0 disables early refresh */
+    private Double earlyRefreshBeta;
+    /**
+     * Whether values depend on the request's region and live in each region's
+     * Redis. Caches of region-independent values (snapshots by id) turn it off
+     * and share one Redis, so a value is loaded and stored once.
+     */
+    private Boolean regional;
+
+    static Policy builtIn() {
+      Policy policy = new Policy();
+      policy.setTtl(Duration.ofHours(24));
+      policy.setLocalEnabled(true);
+      policy.setLocalMaxEntries(10000L);
+      policy.setLocalTtl(Duration.ofSeconds(60));
+      policy.setLocalStoreByValue(true);
+      policy.setSerializer(Serializer.SMILE);
+      policy.setCompression(true);
+      policy.setCompressionThreshold(1024);
+      policy.setEarlyRefreshBeta(1.0);
+      policy.setRegional(true);
+      return policy;
+    }
+
+    /** This policy with unset values taken from {@code fallback} */
+    Policy withFallback(Policy fallback) {
+      Policy merged = new Policy();
+      merged.setTtl(ttl != null ? ttl : fallback.getTtl());
+      merged.setLocalEnabled(localEnabled != null ? localEnabled : fallback.getLocalEnabled());
+      merged.setLocalMaxEntries(localMaxEntries != null ? localMaxEntries : fallback.getLocalMaxEntries());
+      merged.setLocalTtl(localTtl != null ? localTtl : fallback.getLocalTtl());
+      merged.setLocalStoreByValue(localStoreByValue != null ? localStoreByValue : fallback.getLocalStoreByValue());
+      merged.setSerializer(serializer != null ? serializer : fallback.getSerializer());
+      merged.setCompression(compression != null ? compression : fallback.getCompression());
+      merged.setCompressionThreshold(compressionThreshold != null
+          ? compressionThreshold : fallback.getCompressionThreshold());
+      merged.setEarlyRefreshBeta(earlyRefreshBeta != null ? earlyRefreshBeta : fallback.getEarlyRefreshBeta());
+      merged.setRegional(regional != null ? regional : fallback.getRegional());
+      return merged;
+    }
+  }
+
+  /** Single-flight loading of missing keys across instances */
+  @Data
+  public static class Stampede {
+    /** How long a loader may hold a key's Redis lock */
+    private Duration lockTtl = Duration.ofSeconds(5);
+    /** How long to wait for another instance's load before loading anyway */
+    private Duration waitTimeout = Duration.ofSeconds(3);
+    private Duration pollInterval = Duration.ofMillis(25);
+  }
+
+  /** Limits of the admin cache statistics report */
+  @Data
+  public static class Stats {
+    /** Most Redis keys counted per cache; the reported size is a lower bound beyond it */
+    private int scanLimit = 10000;
+    /** Keys per cache whose memory usage is sampled for the largest-keys list */
+    private int memorySamples = 200;
+    /** Length of the hottest and largest keys lists */
+    private int topKeys = 10;
+  }
+
+  /** Pool of a region's Redis connections; commands borrow a connection per operation */
+  @Data
+  public static class RegionPool {
+    private int maxActive = 16;
+    private int maxIdle = 8;
+    private int minIdle = 2;
+    /** How long a command waits for a free connection before failing */
+    private Duration maxWait = Duration.ofMillis(500);
+  }
+
+  /** Pool settings of a region, the built-in ones if it has no entry */
+  public RegionPool regionPool(RegionPartition region) {
+    return regions.getOrDefault(region.getCode(), new RegionPool());
+  }
+
+  /** Policy for caches without their own entry */
+  public Policy defaultPolicy() {
+    return defaults.withFallback(Policy.builtIn());
+  }
+
+  /** Effective policy for a cache: its own settings over the defaults over the built-in values */
+  public Policy resolve(String cacheName) {
+    Policy policy = policies.get(cacheName);
+    return policy != null ? policy.withFallback(defaultPolicy()) : defaultPolicy();
+  }
+}
@@ -0,0 +1,97 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import com.winnguyen1905.product.secure.RegionPartition;
+
+/**
+ * Hands out connections of the Redis connection factory of the region the
+ * current request belongs to, so cache reads and writes land in that region's
+ * Redis: a database per region today, possibly a node per region later. The
+ * region is resolved on every {@link #getConnection()}; regions without a
+ * factory of their own use the US one.
+ *
+ * {@link #forEachRegion} pins the routing to each region in turn, for
+ * operations that must reach every region, such as evictions.
+ */
+public class RegionalRedisConnectionFactory implements RedisConnectionFactory {
+
+  private final Map<RegionPartition, RedisConnectionFactory> factories;
+  private final Supplier<RegionPartition> currentRegion;
+  private final ThreadLocal<RegionPartition> pinnedRegion = new ThreadLocal<>();
+
+  public RegionalRedisConnectionFactory(Map<RegionPartition, RedisConnectionFactory> factories,
+      Supplier<RegionPartition> currentRegion) {
+    if (!factories.containsKey(RegionPartition.US)) {
+      throw new IllegalArgumentException("A connection factory for the US region is required");
+    }
+    this.factories = new EnumMap<>(factories);
+    this.currentRegion = currentRegion;
+  }
+
+  /** Region the next connection is routed to */
+  public RegionPartition region() {
+    RegionPartition pinned = pinnedRegion.get();
+    if (pinned != null) {
+      return pinned;
+    }
+    RegionPartition region = currentRegion.get();
+    return region != null ? region : RegionPartition.US;
+  }
+
+  /** Run {@code action} once per region, with every connection it opens routed to that region */
+  public void forEachRegion(Consumer<RegionPartition> action) {
+    RegionPartition previous = pinnedRegion.get();
+    try {
+      for (RegionPartition region : factories.keySet()) {
+        pinnedRegion.set(region);
+        action.accept(region);
+      }
+    } finally {
+      if (previous != null) {
+        pinnedRegion.set(previous);
+      } else {
+        pinnedRegion.remove();
+      }
+    }
+  }
+
+  @Override
+  public RedisConnection getConnection() {
+    return target().getConnection();
+  }
+
+  @Override
+  public RedisClusterConnection getClusterConnection() {
+    return target().getClusterConnection();
+  }
+
+  @Override
+  public boolean getConvertPipelineAndTxResults() {
+    return target().getConvertPipelineAndTxResults();
+  }
+
+  @Override
+  public RedisSentinelConnection getSentinelConnection() {
+    return target().getSentinelConnection();
+  }
+
+  @Override
+  public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+    return target().translateExceptionIfPossible(ex);
+  }
+
+  private RedisConnectionFactory target() {
+    RedisConnectionFactory factory = factories.get(region());
+    return factory != null ? factory : factories.get(RegionPartition.US);
+  }
+}
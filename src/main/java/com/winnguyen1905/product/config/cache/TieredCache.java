@@ -0,0 +1,436 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Two-level cache: an optional per-instance Caffeine L1 in front of the
+ * shared Redis L2.
+ *
+ * Reads are served from L1 when possible and fall through to L2, populating
+ * L1 on the way back. Writes and evictions go to both levels and are then
+ * broadcast so the other instances drop their L1 copy. L1 entries are keyed by
+ * the string form of the key, the same form Redis keys are built from, so an
+ * invalidation received as text matches the local entry.
+ *
+ * Unless the policy turns {@code local-store-by-value} off, L1 holds values
+ * encoded with the cache's serializer and decodes a fresh copy for every read,
+ * as Redis does. Callers may then modify what they get without corrupting the
+ * entry other requests are served.
+ *
+ * Expiry is stampede-protected. Values are stored in Redis as a
+ * {@link CacheEntry} carrying their compute time and expiry, and a reader may
+ * be picked (XFetch) to recompute shortly before expiry while everyone else
+ * keeps the current value. With {@code @Cacheable(sync = true)} a miss is
+ * loaded once across all instances through {@link CacheLoadCoordinator};
+ * plain {@code @Cacheable} gets the early refresh but not the single-flight.
+ *
+ * Hit and miss counts of both levels are published by
+ * {@link TieredCacheManager}; this class adds the time spent computing missing
+ * values ({@code cache.compute}) and the early refreshes taken
+ * ({@code cache.early.refresh}).
+ */
+public class TieredCache implements Cache {
+
+  /** lockToken is set when the miss is an early refresh holding the key's lock */
+  private record PendingMiss(String key, long startedAt, String lockToken) {
+  }
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+  // Encodes L1 values when they are stored by value, null when stored by reference
+  private final CacheCodec localCodec;
+  private final Cache remote;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final CacheLoadCoordinator loadCoordinator;
+  private final Duration ttl;
+  private final double earlyRefreshBeta;
+  private final Timer computeSuccess;
+  private final Timer computeFailure;
+  private final Counter earlyRefreshes;
+
+  // Start of the miss the current thread is computing a value for, to learn compute time on put
+  private final ThreadLocal<PendingMiss> pendingMiss = new ThreadLocal<>();
+
+  /**
+   * @param local L1 cache, or null when the policy disables L1
+   */
+  public TieredCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+      CacheInvalidationPublisher invalidationPublisher, CacheLoadCoordinator loadCoordinator,
+      CachePolicyProperties.Policy policy, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.local = local;
+    this.localCodec = Boolean.TRUE.equals(policy.getLocalStoreByValue())
+        ? new CacheCodec(policy.getSerializer(), false, 0)
+        : null;
+    this.remote = remote;
+    this.invalidationPublisher = invalidationPublisher;
+    this.loadCoordinator = loadCoordinator;
+    this.ttl = policy.getTtl();
+    this.earlyRefreshBeta = policy.getEarlyRefreshBeta();
+    this.computeSuccess = computeTimer(meterRegistry, name, "success");
+    this.computeFailure = computeTimer(meterRegistry, name, "failure");
+    this.earlyRefreshes = Counter.builder("cache.early.refresh")
+        .description("Values recomputed ahead of expiry")
+        .tag("cache", name)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    // A miss left over from a computation that threw never reached put
+    abandonPendingMiss();
+    String localKey = localKey(key);
+    Object value = getLocal(localKey);
+    if (value != null) {
+      return new SimpleValueWrapper(value);
+    }
+
+    CacheEntry entry = getRemote(key);
+    if (entry == null) {
+      // A miss: the caller computes the value and puts it
+      pendingMiss.set(new PendingMiss(localKey, System.nanoTime(), null));
+      return null;
+    }
+    if (entry.shouldRefreshEarly(earlyRefreshBeta, System.currentTimeMillis())) {
+      String token = loadCoordinator.tryLock(lockKey(localKey));
+      if (token != null) {
+        // This caller won the early refresh; put releases the lock once the new value is stored
+        earlyRefreshes.increment();
+        pendingMiss.set(new PendingMiss(localKey, System.nanoTime(), token));
+        return null;
+      }
+    }
+
+    putLocal(localKey, entry.value());
+    return new SimpleValueWrapper(entry.value());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    String localKey = localKey(key);
+    Object value = getLocal(localKey);
+    if (value != null) {
+      return (T) value;
+    }
+
+    CacheEntry entry = getRemote(key);
+    if (entry != null) {
+      if (entry.shouldRefreshEarly(earlyRefreshBeta, System.currentTimeMillis())) {
+        String token = loadCoordinator.tryLock(lockKey(localKey));
+        if (token != null) {
+          earlyRefreshes.increment();
+          try {
+            return (T) loadAndPut(key, valueLoader);
+          } finally {
+            loadCoordinator.unlock(lockKey(localKey), token);
+          }
+        }
+      }
+      putLocal(localKey, entry.value());
+      return (T) entry.value();
+    }
+
+    value = loadCoordinator.load(lockKey(localKey), () -> {
+      CacheEntry stored = getRemote(key);
+      return stored != null ? stored.value() : null;
+    }, () -> loadAndPut(key, valueLoader));
+    putLocal(localKey, value);
+    return (T) value;
+  }
+
+  /**
+   * Look up many keys at once: L1 first, then all remaining keys in one Redis
+   * round-trip, then every miss through a single call to {@code loader}, whose
+   * results are stored in one pipeline. Keys the loader leaves out are absent
+   * and not cached.
+   *
+   * Batch reads skip the single-flight and the early refresh; they serve
+   * cart-sized requests where one batched load is already cheap. Filled misses
+   * are not broadcast either: Redis had no value another instance could have
+   * copied, short of one still in its L1 past the Redis expiry, which the L1
+   * TTL bounds.
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+    Map<K, V> values = new HashMap<>();
+    Set<K> misses = new LinkedHashSet<>();
+    for (K key : keys) {
+      Object value = getLocal(localKey(key));
+      if (value != null) {
+        values.put(key, (V) value);
+      } else {
+        misses.add(key);
+      }
+    }
+    if (misses.isEmpty()) {
+      return values;
+    }
+
+    getRemoteAll(misses).forEach((key, entry) -> {
+      putLocal(localKey(key), entry.value());
+      values.put((K) key, (V) entry.value());
+      misses.remove(key);
+    });
+    if (misses.isEmpty()) {
+      return values;
+    }
+
+    long startedAt = System.nanoTime();
+    Map<K, V> loaded;
+    try {
+      loaded = loader.apply(misses);
+    } catch (RuntimeException e) {
+      computeFailure.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+    long computeNanos = System.nanoTime() - startedAt;
+    computeSuccess.record(computeNanos, TimeUnit.NANOSECONDS);
+
+    Map<Object, Object> entries = new HashMap<>();
+    loaded.forEach((key, value) -> {
+      if (value != null) {
+        values.put(key, value);
+        putLocal(localKey(key), value);
+        entries.put(key, value);
+      }
+    });
+    // Each key's share of the batch stands in for its compute time
+    long computeMillis = entries.isEmpty() ? 0 : computeNanos / 1_000_000 / entries.size();
+    entries.replaceAll((key, value) -> newEntry(value, computeMillis));
+    putRemoteAll(entries);
+    return values;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    String localKey = localKey(key);
+    PendingMiss miss = pendingMiss.get();
+    pendingMiss.remove();
+    try {
+      long computeNanos = miss != null && miss.key().equals(localKey) ? System.nanoTime() - miss.startedAt() : 0;
+      if (computeNanos > 0) {
+        computeSuccess.record(computeNanos, TimeUnit.NANOSECONDS);
+      }
+      store(key, value, computeNanos / 1_000_000);
+    } finally {
+      releaseRefreshLock(miss);
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = remote.putIfAbsent(key, value != null ? newEntry(value, 0) : null);
+    Object current = existing == null ? value : unwrap(existing.get());
+    putLocal(localKey(key), current);
+    return existing == null ? null : new SimpleValueWrapper(current);
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    if (local != null) {
+      local.invalidate(localKey(key));
+    }
+    invalidationPublisher.publishEvict(name, localKey(key));
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    if (local != null) {
+      local.invalidateAll();
+    }
+    invalidationPublisher.publishClear(name);
+  }
+
+  /** The L1 cache, or null when the policy disables L1 */
+  public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+    return local;
+  }
+
+  /** The Redis (L2) cache */
+  public Cache getRemoteCache() {
+    return remote;
+  }
+
+  /** Drop an L1 entry on behalf of another instance, without touching Redis */
+  void invalidateLocal(String key) {
+    if (local != null) {
+      local.invalidate(key);
+    }
+  }
+
+  /** Drop all L1 entries on behalf of another instance, without touching Redis */
+  void clearLocal() {
+    if (local != null) {
+      local.invalidateAll();
+    }
+  }
+
+  private void abandonPendingMiss() {
+    PendingMiss miss = pendingMiss.get();
+    if (miss != null) {
+      pendingMiss.remove();
+      releaseRefreshLock(miss);
+    }
+  }
+
+  private void releaseRefreshLock(PendingMiss miss) {
+    if (miss != null && miss.lockToken() != null) {
+      loadCoordinator.unlock(lockKey(miss.key()), miss.lockToken());
+    }
+  }
+
+  private Object loadAndPut(Object key, Callable<?> valueLoader) {
+    long startedAt = System.nanoTime();
+    Object value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      computeFailure.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    long computeNanos = System.nanoTime() - startedAt;
+    computeSuccess.record(computeNanos, TimeUnit.NANOSECONDS);
+    if (value != null) {
+      store(key, value, computeNanos / 1_000_000);
+    }
+    return value;
+  }
+
+  private void store(Object key, Object value, long computeMillis) {
+    remote.put(key, value != null ? newEntry(value, computeMillis) : null);
+    putLocal(localKey(key), value);
+    invalidationPublisher.publishEvict(name, localKey(key));
+  }
+
+  private CacheEntry newEntry(Object value, long computeMillis) {
+    long expiresAt = ttl == null || ttl.isZero() || ttl.isNegative()
+        ? Long.MAX_VALUE
+        : System.currentTimeMillis() + ttl.toMillis();
+    return new CacheEntry(value, computeMillis, expiresAt);
+  }
+
+  private CacheEntry getRemote(Object key) {
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper == null || wrapper.get() == null) {
+      return null;
+    }
+    return toEntry(wrapper.get());
+  }
+
+  private Map<Object, CacheEntry> getRemoteAll(Collection<?> keys) {
+    Map<Object, CacheEntry> entries = new HashMap<>();
+    if (remote instanceof BatchRedisCache batchCache) {
+      batchCache.getAll(keys).forEach((key, stored) -> entries.put(key, toEntry(stored)));
+    } else {
+      keys.forEach(key -> {
+        CacheEntry entry = getRemote(key);
+        if (entry != null) {
+          entries.put(key, entry);
+        }
+      });
+    }
+    return entries;
+  }
+
+  private void putRemoteAll(Map<Object, Object> entries) {
+    if (remote instanceof BatchRedisCache batchCache) {
+      batchCache.putAll(entries);
+    } else {
+      entries.forEach(remote::put);
+    }
+  }
+
+  private Object getLocal(String localKey) {
+    Object value = local != null ? local.getIfPresent(localKey) : null;
+    if (localCodec == null || !(value instanceof byte[] encoded)) {
+      return value;
+    }
+    try {
+      return localCodec.deserialize(encoded);
+    } catch (SerializationException e) {
+      local.invalidate(localKey);
+      return null;
+    }
+  }
+
+  private void putLocal(String localKey, Object value) {
+    if (local == null || value == null) {
+      return;
+    }
+    if (localCodec == null) {
+      local.put(localKey, value);
+      return;
+    }
+    try {
+      local.put(localKey, localCodec.serialize(value));
+    } catch (SerializationException e) {
+      // Redis rejects the value the same way; it is simply not cached locally
+      local.invalidate(localKey);
+    }
+  }
+
+  private String lockKey(String localKey) {
+    return name + ":" + localKey;
+  }
+
+  private static Timer computeTimer(MeterRegistry meterRegistry, String cacheName, String result) {
+    return Timer.builder("cache.compute")
+        .description("Time spent computing values missing from the cache")
+        .tag("cache", cacheName)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  // Entries written before values were wrapped carry no timing, so never refresh early
+  private static CacheEntry toEntry(Object stored) {
+    return stored instanceof CacheEntry entry ? entry : new CacheEntry(stored, 0, Long.MAX_VALUE);
+  }
+
+  private static Object unwrap(Object stored) {
+    return stored instanceof CacheEntry entry ? entry.value() : stored;
+  }
+
+  private static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
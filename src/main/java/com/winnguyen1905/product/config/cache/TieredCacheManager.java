@@ -0,0 +1,109 @@
+package com.winnguyen1905.product.config.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Wraps a Redis cache manager in {@link TieredCache}s: a Caffeine L1 sized by
+ * each cache's {@link CachePolicyProperties} policy (none where the policy
+ * disables it) plus stampede protection on the Redis level. The L1 TTL is
+ * kept short: it only bounds how long an instance may serve a stale entry if
+ * an invalidation message is lost. Caches whose policy is regional use the
+ * regional Redis cache manager and lock coordinator, the others the shared
+ * ones.
+ *
+ * Each cache's levels are bound to Micrometer as it is created, under the
+ * standard {@code cache.gets}, {@code cache.puts} and {@code cache.evictions}
+ * meters: the L1 tagged {@code cache.manager=local}, the L2 tagged
+ * {@code cache.manager=redis}, the tag Spring Boot gives the Redis caches it
+ * binds itself at startup.
+ */
+public class TieredCacheManager implements CacheManager {
+
+  private final CacheManager remoteCacheManager;
+  private final CacheManager sharedRemoteCacheManager;
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final CacheLoadCoordinator loadCoordinator;
+  private final CacheLoadCoordinator sharedLoadCoordinator;
+  private final CachePolicyProperties cachePolicies;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+  public TieredCacheManager(CacheManager remoteCacheManager, CacheManager sharedRemoteCacheManager,
+      CacheInvalidationPublisher invalidationPublisher, CacheLoadCoordinator loadCoordinator,
+      CacheLoadCoordinator sharedLoadCoordinator, CachePolicyProperties cachePolicies, MeterRegistry meterRegistry) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.sharedRemoteCacheManager = sharedRemoteCacheManager;
+    this.invalidationPublisher = invalidationPublisher;
+    this.loadCoordinator = loadCoordinator;
+    this.sharedLoadCoordinator = sharedLoadCoordinator;
+    this.cachePolicies = cachePolicies;
+    this.meterRegistry = meterRegistry;
+    invalidationPublisher.setCacheManager(this);
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    TieredCache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    CachePolicyProperties.Policy policy = cachePolicies.resolve(name);
+    Cache remote = (policy.getRegional() ? remoteCacheManager : sharedRemoteCacheManager).getCache(name);
+    if (remote == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(name, n -> createCache(n, remote, policy));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    Set<String> names = new LinkedHashSet<>(remoteCacheManager.getCacheNames());
+    names.addAll(sharedRemoteCacheManager.getCacheNames());
+    return names;
+  }
+
+  private TieredCache createCache(String name, Cache remote, CachePolicyProperties.Policy policy) {
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local = null;
+    if (policy.getLocalEnabled()) {
+      local = Caffeine.newBuilder()
+          .maximumSize(policy.getLocalMaxEntries())
+          .expireAfterWrite(policy.getLocalTtl())
+          .recordStats()
+          .build();
+      CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of("cache.manager", "local"));
+    }
+    if (remote instanceof RedisCache redisCache) {
+      new RedisCacheMetrics(redisCache, Tags.of("cache.manager", "redis")).bindTo(meterRegistry);
+    }
+    return new TieredCache(name, local, remote, invalidationPublisher,
+        policy.getRegional() ? loadCoordinator : sharedLoadCoordinator, policy, meterRegistry);
+  }
+
+  /** Apply an invalidation broadcast by another instance to the local L1 only */
+  void invalidateLocal(String cacheName, String key) {
+    TieredCache cache = caches.get(cacheName);
+    if (cache == null) {
+      return;
+    }
+    if (key == null) {
+      cache.clearLocal();
+    } else {
+      cache.invalidateLocal(key);
+    }
+  }
+}
@@ -2,13 +2,20 @@ package com.winnguyen1905.product.core.controller;
 
 import com.winnguyen1905.product.common.annotation.ResponseMessage;
 import com.winnguyen1905.product.core.controller.base.BaseController;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchProjection;
 import com.winnguyen1905.product.core.elasticsearch.service.ProductSearchService;
 import com.winnguyen1905.product.core.elasticsearch.service.ProductSyncService;
+import com.winnguyen1905.product.core.elasticsearch.service.ReactiveProductSearchService;
+import com.winnguyen1905.product.core.elasticsearch.service.SearchSynonymService;
 import com.winnguyen1905.product.core.model.request.SearchProductRequest;
 import com.winnguyen1905.product.core.model.response.ProductResponse;
 import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
 import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.core.model.viewmodel.SearchFacetsVm;
 import com.winnguyen1905.product.core.service.EnhancedProductService;
+import com.winnguyen1905.product.config.RegionalDataSourceConfiguration.RegionalContext;
+import com.winnguyen1905.product.secure.RegionPartition;
 import com.winnguyen1905.product.secure.TAccountRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,13 +26,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -44,6 +57,9 @@ import java.util.UUID;
 public class ProductSearchController extends BaseController {
 
   private final EnhancedProductService enhancedProductService;
+
+  // Reactive search is excluded from the local profile; its endpoints answer 503 there
+  private final ObjectProvider<ReactiveProductSearchService> reactiveProductSearchService;
   
   // Optional Elasticsearch services - will be null in local profile
   @Autowired(required = false)
@@ -51,9 +67,14 @@ public class ProductSearchController extends BaseController {
   
   @Autowired(required = false)
   private ProductSyncService productSyncService;
+
+  @Autowired(required = false)
+  private SearchSynonymService searchSynonymService;
   
-  public ProductSearchController(EnhancedProductService enhancedProductService) {
+  public ProductSearchController(EnhancedProductService enhancedProductService,
+      ObjectProvider<ReactiveProductSearchService> reactiveProductSearchService) {
     this.enhancedProductService = enhancedProductService;
+    this.reactiveProductSearchService = reactiveProductSearchService;
   }
 
   @PostMapping
@@ -132,17 +153,26 @@ public class ProductSearchController extends BaseController {
   }
 
   @GetMapping("/popular")
-  @Operation(summary = "Get popular products", description = "Get popular products based on purchases")
+  @Operation(summary = "Get popular products", description = "Get popular products from the precomputed regional ranking")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Popular products retrieved successfully")
   })
   public ResponseEntity<PagedResponse<ProductResponse>> getPopularProducts(
-      @Parameter(description = "Minimum purchases threshold") @RequestParam(defaultValue = "10") Long minPurchases,
+      @Parameter(description = "Region code (us, eu, asia); defaults to the caller's region") @RequestParam(required = false) String region,
+      @Parameter(description = "Restrict the ranking to a category") @RequestParam(required = false) UUID categoryId,
+      @Parameter(description = "Minimum lifetime purchases; bypasses the ranking when set") @RequestParam(required = false) Long minPurchases,
       @PageableDefault(size = 20) Pageable pageable) {
-    
-    logPublicRequest("Getting popular products with min purchases: " + minPurchases);
-    
-    PagedResponse<ProductResponse> response = enhancedProductService.getPopularProducts(minPurchases, pageable);
+
+    if (minPurchases != null) {
+      logPublicRequest("Getting popular products with min purchases: " + minPurchases);
+      return ok(enhancedProductService.getPopularProducts(minPurchases, pageable));
+    }
+
+    RegionPartition effectiveRegion = region != null ? RegionPartition.fromCode(region)
+        : RegionalContext.getCurrentRegion() != null ? RegionalContext.getCurrentRegion() : RegionPartition.US;
+    logPublicRequest("Getting popular products for region: " + effectiveRegion.getCode());
+
+    PagedResponse<ProductResponse> response = enhancedProductService.getPopularProducts(effectiveRegion, categoryId, pageable);
     return ok(response);
   }
 
@@ -230,6 +260,67 @@ public class ProductSearchController extends BaseController {
     return ok(result);
   }
 
+  @PostMapping("/reactive")
+  @Operation(summary = "Non-blocking search", description = "Search on the reactive Elasticsearch client without holding a request thread")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Products found successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid search request"),
+      @ApiResponse(responseCode = "503", description = "Reactive search not available")
+  })
+  public Mono<ResponseEntity<PagedResponse<ProductVariantReviewVm>>> searchReactive(
+      @Valid @RequestBody SearchProductRequest searchRequest) {
+    logPublicRequest("Reactive search with term: " + searchRequest.getKeyword());
+    ReactiveProductSearchService searchService = reactiveProductSearchService.getIfAvailable();
+    if (searchService == null) {
+      return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+    return searchService.searchProducts(searchRequest).map(this::ok);
+  }
+
+  @PostMapping(value = "/reactive/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Stream search hits", description = "Stream listing hits as NDJSON with back-pressure")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Hits streamed successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid search request"),
+      @ApiResponse(responseCode = "503", description = "Reactive search not available")
+  })
+  public ResponseEntity<Flux<ProductDocument.ListingDocument>> streamSearch(
+      @Valid @RequestBody SearchProductRequest searchRequest) {
+    logPublicRequest("Streaming search with term: " + searchRequest.getKeyword());
+    ReactiveProductSearchService searchService = reactiveProductSearchService.getIfAvailable();
+    if (searchService == null) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+    return ok(searchService.streamListings(searchRequest));
+  }
+
+  @PostMapping("/hits")
+  @Operation(summary = "Projected search", description = "Search returning only the fields of the chosen projection (listing, card, full)")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Products found successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid search request or projection")
+  })
+  public ResponseEntity<PagedResponse<?>> searchProjected(
+      @Valid @RequestBody SearchProductRequest searchRequest,
+      @Parameter(description = "Projection profile: listing, card or full") @RequestParam(defaultValue = "listing") String projection) {
+    logPublicRequest("Projected search (" + projection + ") with term: " + searchRequest.getKeyword());
+    PagedResponse<?> result = productSearchService.searchProducts(searchRequest, SearchProjection.fromCode(projection));
+    return ok(result);
+  }
+
+  @PostMapping("/facets")
+  @Operation(summary = "Get search facets", description = "Brand, category, price-range and attribute counts for a search")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Facets retrieved successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid search request")
+  })
+  public ResponseEntity<SearchFacetsVm> getSearchFacets(
+      @Valid @RequestBody SearchProductRequest searchRequest) {
+    logPublicRequest("Getting search facets for term: " + searchRequest.getKeyword());
+    SearchFacetsVm facets = productSearchService.getFacets(searchRequest);
+    return ok(facets);
+  }
+
   @GetMapping("/suggestions")
   @Operation(summary = "Get search suggestions", description = "Get autocomplete suggestions for search")
   @ApiResponses({
@@ -355,4 +446,38 @@ public class ProductSearchController extends BaseController {
     productSyncService.recreateIndex();
     return ok(Map.of("message", "Elasticsearch index recreated successfully", "timestamp", java.time.Instant.now()));
   }
+
+  @GetMapping("/admin/synonyms")
+  @Operation(summary = "Get search synonyms", description = "List the synonym rules applied at search time")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Synonyms retrieved successfully")
+  })
+  public ResponseEntity<List<String>> getSynonyms(TAccountRequest accountRequest) {
+    logRequest("Getting search synonyms", accountRequest, "SYNONYMS");
+    return ok(searchSynonymService.getSynonyms());
+  }
+
+  @PutMapping("/admin/synonyms")
+  @Operation(summary = "Replace search synonyms", description = "Replace the synonym rules (Solr format, one rule per entry) and reload search analyzers without reindexing")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Synonyms updated and analyzers reloaded"),
+      @ApiResponse(responseCode = "400", description = "Invalid synonym rules")
+  })
+  public ResponseEntity<List<String>> updateSynonyms(
+      @RequestBody List<String> rules,
+      TAccountRequest accountRequest) {
+    logRequest("Updating search synonyms", accountRequest, String.valueOf(rules.size()));
+    return ok(searchSynonymService.updateSynonyms(rules));
+  }
+
+  @PostMapping("/admin/reload-analyzers")
+  @Operation(summary = "Reload search analyzers", description = "Reload updateable search analyzers on the products index")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Search analyzers reloaded")
+  })
+  public ResponseEntity<Object> reloadSearchAnalyzers(TAccountRequest accountRequest) {
+    logRequest("Reloading search analyzers", accountRequest, "RELOAD_ANALYZERS");
+    searchSynonymService.reloadSearchAnalyzers();
+    return ok(Map.of("message", "Search analyzers reloaded", "timestamp", java.time.Instant.now()));
+  }
 } 
@@ -1,11 +1,17 @@
 package com.winnguyen1905.product.core.elasticsearch.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.elasticsearch.client.ClientConfiguration;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchConfiguration;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 
+import co.elastic.clients.transport.ElasticsearchTransport;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -67,6 +73,21 @@ public class ElasticsearchConfig extends ElasticsearchConfiguration {
     }
   }
 
+  /**
+   * Non-blocking client sharing the imperative client's transport, so both
+   * paths use the same connection pool and credentials
+   */
+  @Bean
+  public ReactiveElasticsearchClient reactiveElasticsearchClient(ElasticsearchTransport elasticsearchTransport) {
+    return new ReactiveElasticsearchClient(elasticsearchTransport);
+  }
+
+  @Bean(name = { "reactiveElasticsearchOperations", "reactiveElasticsearchTemplate" })
+  public ReactiveElasticsearchOperations reactiveElasticsearchOperations(
+      ReactiveElasticsearchClient reactiveElasticsearchClient, ElasticsearchConverter elasticsearchConverter) {
+    return new ReactiveElasticsearchTemplate(reactiveElasticsearchClient, elasticsearchConverter);
+  }
+
   private boolean isAuthenticationConfigured() {
     return username != null && !username.trim().isEmpty() &&
         password != null && !password.trim().isEmpty();
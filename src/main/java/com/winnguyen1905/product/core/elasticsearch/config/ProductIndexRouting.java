@@ -0,0 +1,161 @@
+package com.winnguyen1905.product.core.elasticsearch.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.routing.RoutingResolver;
+import org.springframework.stereotype.Component;
+
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resolves which index and shard routing a product document lives under for
+ * the configured topology:
+ * <ul>
+ * <li>{@code single} - one index, region is only a field</li>
+ * <li>{@code routed} - one multi-shard index, documents routed by region code
+ * over a partition of {@code routed-partition-size} shards per region</li>
+ * <li>{@code per-region} - one index per region behind the common alias</li>
+ * </ul>
+ * Unscoped reads always go to the base name, which is the alias in per-region mode.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductIndexRouting {
+
+  public enum Topology {
+    SINGLE, ROUTED, PER_REGION;
+
+    static Topology fromCode(String code) {
+      return valueOf(code.trim().toUpperCase().replace('-', '_'));
+    }
+  }
+
+  private final ElasticsearchOperations elasticsearchOperations;
+
+  @Value("${elasticsearch.indices.products.name:products}")
+  private String baseName;
+
+  @Value("${elasticsearch.indices.products.topology:single}")
+  private String topologyCode;
+
+  @Value("${elasticsearch.indices.products.routed-shards:6}")
+  private int routedShards;
+
+  @Value("${elasticsearch.indices.products.routed-partition-size:2}")
+  private int routedPartitionSize;
+
+  public Topology getTopology() {
+    return Topology.fromCode(topologyCode);
+  }
+
+  public int getRoutedShards() {
+    return routedShards;
+  }
+
+  /**
+   * Shards each routing value spreads over; without it a region would fill a
+   * single shard however many the index has
+   */
+  public int getRoutedPartitionSize() {
+    return routedPartitionSize;
+  }
+
+  public String getAlias() {
+    return baseName;
+  }
+
+  /**
+   * Index (or alias) covering all regions
+   */
+  public IndexCoordinates allRegions() {
+    return IndexCoordinates.of(baseName);
+  }
+
+  /**
+   * Index holding the documents of a single region
+   */
+  public IndexCoordinates indexFor(RegionPartition region) {
+    if (getTopology() == Topology.PER_REGION && region != null) {
+      return IndexCoordinates.of(regionIndexName(region));
+    }
+    return allRegions();
+  }
+
+  /**
+   * Indices holding every region except the given one
+   */
+  public IndexCoordinates indicesExcept(RegionPartition excluded) {
+    if (getTopology() == Topology.PER_REGION && excluded != null) {
+      return IndexCoordinates.of(otherRegions(excluded).stream()
+          .map(this::regionIndexName)
+          .toArray(String[]::new));
+    }
+    return allRegions();
+  }
+
+  public String regionIndexName(RegionPartition region) {
+    return baseName + "-" + region.getCode();
+  }
+
+  public List<String> regionIndexNames() {
+    return Arrays.stream(RegionPartition.values()).map(this::regionIndexName).toList();
+  }
+
+  /**
+   * Shard routing value for a region, or null when documents are not routed
+   */
+  public String routingFor(RegionPartition region) {
+    return getTopology() == Topology.ROUTED && region != null ? region.getCode() : null;
+  }
+
+  /**
+   * Restrict a region-scoped query to the shards of that region
+   */
+  public <Q extends Query> Q routeTo(Q query, RegionPartition region) {
+    String routing = routingFor(region);
+    if (routing != null) {
+      query.setRoute(routing);
+    }
+    return query;
+  }
+
+  /**
+   * Restrict a query to the shards of every region except the given one
+   */
+  public <Q extends Query> Q routeToAllExcept(Q query, RegionPartition excluded) {
+    if (getTopology() == Topology.ROUTED && excluded != null) {
+      query.setRoute(otherRegions(excluded).stream()
+          .map(RegionPartition::getCode)
+          .collect(Collectors.joining(",")));
+    }
+    return query;
+  }
+
+  /**
+   * Index a document into the index and shard of its region
+   */
+  public ProductDocument save(ProductDocument document) {
+    return operationsFor(document.getRegion()).save(document, indexFor(document.getRegion()));
+  }
+
+  /**
+   * Operations applying the region's routing to document-level calls
+   */
+  public ElasticsearchOperations operationsFor(RegionPartition region) {
+    String routing = routingFor(region);
+    return routing != null ? elasticsearchOperations.withRouting(RoutingResolver.just(routing)) : elasticsearchOperations;
+  }
+
+  private List<RegionPartition> otherRegions(RegionPartition excluded) {
+    return Arrays.stream(RegionPartition.values()).filter(region -> region != excluded).toList();
+  }
+}
@@ -104,15 +104,15 @@ public class ElasticsearchController {
   }
 
   @GetMapping("/similar/{productId}")
-  public ResponseEntity<RestResponse<List<ProductDocument>>> findSimilarProducts(
+  public ResponseEntity<RestResponse<List<ProductVariantReviewVm>>> findSimilarProducts(
       @PathVariable String productId,
       @RequestParam(defaultValue = "10") int limit) {
     log.info("Finding similar products for: {}", productId);
 
-    List<ProductDocument> products = productSearchService.findSimilarProducts(productId, limit);
+    List<ProductVariantReviewVm> products = productSearchService.findSimilarProducts(productId, limit);
 
     return ResponseEntity.ok(
-        RestResponse.<List<ProductDocument>>builder()
+        RestResponse.<List<ProductVariantReviewVm>>builder()
             .data(products)
             .message("Similar products retrieved successfully")
             .build());
@@ -0,0 +1,87 @@
+package com.winnguyen1905.product.core.elasticsearch.document;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.WriteTypeHint;
+
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read-only view of a product document for product cards: the listing fields
+ * plus brand, category, SKU and features, without descriptions, SEO or audit data.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "products", writeTypeHint = WriteTypeHint.FALSE, createIndex = false)
+public class ProductCardHit {
+
+  public static final String[] SOURCE_FIELDS = {
+      "id", "product_id", "variant_id", "shop_id", "region", "name", "sku", "price", "currency",
+      "image_url", "rating", "review_count", "is_featured", "features",
+      "brand.id", "brand.name", "category.id", "category.name",
+      "inventory.quantity_available", "inventory.is_in_stock"
+  };
+
+  @Id
+  private String id;
+
+  @Field(type = FieldType.Keyword, name = "product_id")
+  private UUID productId;
+
+  @Field(type = FieldType.Keyword, name = "variant_id")
+  private UUID variantId;
+
+  @Field(type = FieldType.Keyword, name = "shop_id")
+  private UUID shopId;
+
+  @Field(type = FieldType.Keyword, name = "region")
+  private RegionPartition region;
+
+  @Field(type = FieldType.Text, name = "name")
+  private String name;
+
+  @Field(type = FieldType.Keyword, name = "sku")
+  private String sku;
+
+  @Field(type = FieldType.Double, name = "price")
+  private Double price;
+
+  @Field(type = FieldType.Keyword, name = "currency")
+  private String currency;
+
+  @Field(type = FieldType.Text, name = "image_url")
+  private String imageUrl;
+
+  @Field(type = FieldType.Double, name = "rating")
+  private Double rating;
+
+  @Field(type = FieldType.Integer, name = "review_count")
+  private Integer reviewCount;
+
+  @Field(type = FieldType.Boolean, name = "is_featured")
+  private Boolean isFeatured;
+
+  @Field(type = FieldType.Object, name = "features")
+  private Map<String, Object> features;
+
+  @Field(type = FieldType.Nested, name = "brand")
+  private ProductDocument.BrandDocument brand;
+
+  @Field(type = FieldType.Nested, name = "category")
+  private ProductDocument.CategoryDocument category;
+
+  @Field(type = FieldType.Nested, name = "inventory")
+  private ProductDocument.InventoryDocument inventory;
+}
@@ -40,7 +40,7 @@ public class ProductDocument {
   @Field(type = FieldType.Keyword, name = "region")
   private RegionPartition region;
 
-  @Field(type = FieldType.Text, name = "name", analyzer = "product_name_analyzer")
+  @Field(type = FieldType.Text, name = "name", analyzer = "product_name_analyzer", searchAnalyzer = "search_analyzer")
   private String name;
 
   @Field(type = FieldType.Text, name = "description", analyzer = "standard")
@@ -118,6 +118,10 @@ public class ProductDocument {
   @Field(type = FieldType.Keyword, name = "updated_by")
   private String updatedBy;
 
+  /** Render-ready listing tile computed at index time; stored only, not indexed */
+  @Field(type = FieldType.Object, name = "listing", enabled = false)
+  private ListingDocument listing;
+
   @Data
   @Builder
   @NoArgsConstructor
@@ -207,4 +211,59 @@ public class ProductDocument {
     @Field(type = FieldType.Date, name = "last_updated")
     private Instant lastUpdated;
   }
+
+  /**
+   * Everything a listing tile renders, already resolved: display name, primary
+   * image, price range, stock flags and category path. Search responses copy it
+   * through instead of deriving these per hit. Kept to scalars; features stay
+   * in the top-level field rather than being stored twice.
+   */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ListingDocument {
+
+    @Field(name = "id")
+    private UUID id;
+
+    @Field(name = "product_id")
+    private UUID productId;
+
+    @Field(name = "name")
+    private String name;
+
+    @Field(name = "sku")
+    private String sku;
+
+    @Field(name = "price")
+    private Double price;
+
+    @Field(name = "min_price")
+    private Double minPrice;
+
+    @Field(name = "max_price")
+    private Double maxPrice;
+
+    @Field(name = "currency")
+    private String currency;
+
+    @Field(name = "image_url")
+    private String imageUrl;
+
+    @Field(name = "stock")
+    private Integer stock;
+
+    @Field(name = "in_stock")
+    private Boolean inStock;
+
+    @Field(name = "low_stock")
+    private Boolean lowStock;
+
+    @Field(name = "brand_name")
+    private String brandName;
+
+    @Field(name = "category_path")
+    private String categoryPath;
+  }
 }
@@ -0,0 +1,70 @@
+package com.winnguyen1905.product.core.elasticsearch.document;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.WriteTypeHint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read-only view of a product document carrying the precomputed listing tile,
+ * the features a review view model shows, and the few card fields needed to
+ * build a tile for documents indexed before listings existed. Populated from
+ * a source-filtered search, never written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(indexName = "products", writeTypeHint = WriteTypeHint.FALSE, createIndex = false)
+public class ProductListingHit {
+
+  public static final String[] SOURCE_FIELDS = {
+      "id", "listing", "features",
+      "product_id", "variant_id", "name", "sku", "price", "currency", "image_url",
+      "inventory.quantity_available", "inventory.is_in_stock", "inventory.is_low_stock"
+  };
+
+  @Id
+  private String id;
+
+  @Field(type = FieldType.Object, name = "listing", enabled = false)
+  private ProductDocument.ListingDocument listing;
+
+  @Field(type = FieldType.Object, name = "features")
+  private Map<String, Object> features;
+
+  // Fallback for documents without a listing, until they are reindexed
+
+  @Field(type = FieldType.Keyword, name = "product_id")
+  private UUID productId;
+
+  @Field(type = FieldType.Keyword, name = "variant_id")
+  private UUID variantId;
+
+  @Field(type = FieldType.Text, name = "name")
+  private String name;
+
+  @Field(type = FieldType.Keyword, name = "sku")
+  private String sku;
+
+  @Field(type = FieldType.Double, name = "price")
+  private Double price;
+
+  @Field(type = FieldType.Keyword, name = "currency")
+  private String currency;
+
+  @Field(type = FieldType.Text, name = "image_url")
+  private String imageUrl;
+
+  @Field(type = FieldType.Nested, name = "inventory")
+  private ProductDocument.InventoryDocument inventory;
+}
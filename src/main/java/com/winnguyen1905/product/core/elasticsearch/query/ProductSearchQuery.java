@@ -1,17 +1,26 @@
 package com.winnguyen1905.product.core.elasticsearch.query;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import com.winnguyen1905.product.core.elasticsearch.config.ProductIndexRouting;
 import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchTelemetry.SearchShape;
 import com.winnguyen1905.product.core.model.request.SearchProductRequest;
 import com.winnguyen1905.product.secure.RegionPartition;
 import com.winnguyen1905.product.util.CommonUtils;
@@ -19,6 +28,8 @@ import com.winnguyen1905.product.util.CommonUtils;
 import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
 import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode;
@@ -31,6 +42,7 @@ import co.elastic.clients.elasticsearch._types.query_dsl.TermsQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.TermsQueryField;
 import co.elastic.clients.json.JsonData;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,14 +51,118 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ProductSearchQuery {
 
+  public static final String FACET_BRANDS = "brands";
+  public static final String FACET_CATEGORIES = "categories";
+  public static final String FACET_PRICE_RANGES = "price_ranges";
+  public static final String FACET_ATTRIBUTE_PREFIX = "attr_";
+  public static final String FACET_IDS = "ids";
+  public static final String FACET_NAMES = "names";
+
   private final ElasticsearchOperations elasticsearchOperations;
+  private final ProductIndexRouting productIndexRouting;
+  private final SearchTelemetry searchTelemetry;
+
+  @Value("${elasticsearch.search.facets.size:20}")
+  private int facetSize;
+
+  @Value("${elasticsearch.search.facets.price-breaks:25,50,100,250,500}")
+  private List<Double> facetPriceBreaks;
+
+  @Value("${elasticsearch.search.facets.attributes:color,size,material}")
+  private List<String> facetAttributes;
+
+  /** Facet aggregations depend only on configuration, so they are built once */
+  private Map<String, Aggregation> facetAggregations;
+
+  @PostConstruct
+  void buildFacetAggregations() {
+    Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+    aggregations.put(FACET_BRANDS, nestedTermsFacet("brand"));
+    aggregations.put(FACET_CATEGORIES, nestedTermsFacet("category"));
+    aggregations.put(FACET_PRICE_RANGES, priceRangeFacet());
+
+    // Dynamically mapped string features are indexed with a .keyword sub-field
+    for (String attribute : facetAttributes) {
+      aggregations.put(FACET_ATTRIBUTE_PREFIX + attribute, Aggregation.of(a -> a
+          .terms(t -> t.field("features." + attribute + ".keyword").size(facetSize))));
+    }
+    facetAggregations = Collections.unmodifiableMap(aggregations);
+  }
 
   public SearchHits<ProductDocument> executeSearch(SearchProductRequest searchProductRequest) {
+    return executeSearch(searchProductRequest, SearchProjection.FULL);
+  }
+
+  /**
+   * Execute a search fetching only the fields of the given projection
+   */
+  public <T> SearchHits<T> executeSearch(SearchProductRequest searchProductRequest, SearchProjection<T> projection) {
     if (searchProductRequest.isPartitionFirstEnabled() && searchProductRequest.region() != null) {
-      return executePartitionFirstSearch(searchProductRequest);
+      return executePartitionFirstSearch(searchProductRequest, projection);
     }
 
-    NativeQuery searchQuery = buildSearchQuery(searchProductRequest);
+    NativeQuery searchQuery = projection.applyTo(buildSearchQuery(searchProductRequest));
+    return searchTelemetry.record(SearchShape.of(searchProductRequest, "global"), searchQuery,
+        () -> elasticsearchOperations.search(searchQuery, projection.getHitType()));
+  }
+
+  /**
+   * Execute an aggregation-only search returning facet counts for the request's filters
+   */
+  public SearchHits<ProductDocument> executeFacetSearch(SearchProductRequest searchProductRequest) {
+    NativeQuery facetQuery = buildFacetQuery(searchProductRequest);
+    return searchTelemetry.record(SearchShape.of(searchProductRequest, "facets"), facetQuery,
+        () -> elasticsearchOperations.search(facetQuery, ProductDocument.class));
+  }
+
+  /**
+   * Configured attribute keys under {@code features} that get a facet
+   */
+  public List<String> getFacetAttributes() {
+    return facetAttributes;
+  }
+
+  /**
+   * Look up a document by id. Uses an ids query rather than GET so it works
+   * without knowing the document's routing or region index.
+   */
+  public ProductDocument findDocument(String documentId) {
+    NativeQuery query = NativeQuery.builder()
+        .withQuery(Query.of(q -> q.ids(i -> i.values(documentId))))
+        .withMaxResults(1)
+        .build();
+    SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class,
+        productIndexRouting.allRegions());
+    return hits.hasSearchHits() ? hits.getSearchHit(0).getContent() : null;
+  }
+
+  /**
+   * Look up documents by id, keeping only those a search would show
+   * (published and in stock). Order of the result is unspecified.
+   */
+  public List<ProductDocument> findVisibleDocuments(List<String> documentIds) {
+    if (documentIds.isEmpty()) {
+      return List.of();
+    }
+    BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder()
+        .must(Query.of(q -> q.ids(i -> i.values(documentIds))));
+    addStatusFilters(boolQueryBuilder);
+
+    NativeQuery query = NativeQuery.builder()
+        .withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())))
+        .withMaxResults(documentIds.size())
+        .build();
+    return elasticsearchOperations.search(query, ProductDocument.class, productIndexRouting.allRegions())
+        .getSearchHits().stream()
+        .map(SearchHit::getContent)
+        .toList();
+  }
+
+  /**
+   * Execute a more_like_this search for neighbors of the given document
+   */
+  public SearchHits<ProductDocument> executeSimilarProductsSearch(ProductDocument source, int limit) {
+    NativeQuery searchQuery = buildSimilarProductsQuery(source, limit);
     return elasticsearchOperations.search(searchQuery, ProductDocument.class);
   }
 
@@ -54,10 +170,11 @@ public class ProductSearchQuery {
    * Execute partition-first search: search user's partition first, then expand if
    * needed
    */
-  public SearchHits<ProductDocument> executePartitionFirstSearch(SearchProductRequest searchProductRequest) {
+  public <T> SearchHits<T> executePartitionFirstSearch(SearchProductRequest searchProductRequest,
+      SearchProjection<T> projection) {
     // Step 1: Search in user's partition only
-    SearchHits<ProductDocument> primaryResults = searchInSpecificPartition(searchProductRequest,
-        searchProductRequest.region());
+    SearchHits<T> primaryResults = searchInSpecificPartition(searchProductRequest,
+        searchProductRequest.region(), projection);
 
     int desiredResults = searchProductRequest.getPage().getPageSize();
     int thresholdResults = (int) (desiredResults * searchProductRequest.getPartitionFirstThreshold());
@@ -67,7 +184,7 @@ public class ProductSearchQuery {
 
     // Step 2: If insufficient results, search other partitions
     if (primaryResults.getTotalHits() < thresholdResults) {
-      return executeMultiPartitionSearch(searchProductRequest, primaryResults);
+      return executeMultiPartitionSearch(searchProductRequest, primaryResults, projection);
     }
 
     return primaryResults;
@@ -76,20 +193,22 @@ public class ProductSearchQuery {
   /**
    * Search in a specific partition
    */
-  public SearchHits<ProductDocument> searchInSpecificPartition(SearchProductRequest searchProductRequest,
-      RegionPartition region) {
-    NativeQuery searchQuery = buildPartitionSpecificQuery(searchProductRequest, region);
-    return elasticsearchOperations.search(searchQuery, ProductDocument.class);
+  public <T> SearchHits<T> searchInSpecificPartition(SearchProductRequest searchProductRequest,
+      RegionPartition region, SearchProjection<T> projection) {
+    NativeQuery searchQuery = projection.applyTo(buildPartitionSpecificQuery(searchProductRequest, region));
+    return searchTelemetry.record(SearchShape.of(searchProductRequest, "partition"), searchQuery,
+        () -> elasticsearchOperations.search(productIndexRouting.routeTo(searchQuery, region),
+            projection.getHitType(), productIndexRouting.indexFor(region)));
   }
 
   /**
    * Execute multi-partition search combining results from primary partition and
    * others
    */
-  private SearchHits<ProductDocument> executeMultiPartitionSearch(SearchProductRequest searchProductRequest,
-      SearchHits<ProductDocument> primaryResults) {
+  private <T> SearchHits<T> executeMultiPartitionSearch(SearchProductRequest searchProductRequest,
+      SearchHits<T> primaryResults, SearchProjection<T> projection) {
     // Get results from other partitions
-    SearchHits<ProductDocument> otherPartitionResults = searchInOtherPartitions(searchProductRequest);
+    SearchHits<T> otherPartitionResults = searchInOtherPartitions(searchProductRequest, projection);
 
     // Combine results with proper boosting
     return combinePartitionResults(primaryResults, otherPartitionResults, searchProductRequest);
@@ -98,7 +217,8 @@ public class ProductSearchQuery {
   /**
    * Search in all partitions except the user's primary partition
    */
-  private SearchHits<ProductDocument> searchInOtherPartitions(SearchProductRequest searchProductRequest) {
+  private <T> SearchHits<T> searchInOtherPartitions(SearchProductRequest searchProductRequest,
+      SearchProjection<T> projection) {
     // Create a copy of request for searching other partitions
     SearchProductRequest otherPartitionRequest = SearchProductRequest.builder()
         .sorts(searchProductRequest.sorts())
@@ -116,8 +236,12 @@ public class ProductSearchQuery {
         .enablePartitionFirst(false) // Disable to avoid recursion
         .build();
 
-    NativeQuery searchQuery = buildMultiPartitionQuery(otherPartitionRequest, searchProductRequest.region());
-    return elasticsearchOperations.search(searchQuery, ProductDocument.class);
+    NativeQuery searchQuery = projection.applyTo(
+        buildMultiPartitionQuery(otherPartitionRequest, searchProductRequest.region()));
+    return searchTelemetry.record(SearchShape.of(searchProductRequest, "other-partitions"), searchQuery,
+        () -> elasticsearchOperations.search(
+            productIndexRouting.routeToAllExcept(searchQuery, searchProductRequest.region()),
+            projection.getHitType(), productIndexRouting.indicesExcept(searchProductRequest.region())));
   }
 
   public NativeQuery buildSearchQuery(SearchProductRequest searchProductRequest) {
@@ -150,17 +274,74 @@ public class ProductSearchQuery {
     return nativeQueryBuilder.build();
   }
 
-  public NativeQuery buildSimilarProductsQuery(String productId, int limit) {
+  /**
+   * Build a size-0 query carrying the same text and filter clauses as the hit
+   * query, plus brand/category/price/attribute aggregations. Region is only a
+   * boost for hits, so it does not narrow facets either.
+   */
+  public NativeQuery buildFacetQuery(SearchProductRequest searchProductRequest) {
     BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
 
-    // Exclude the current product
-    boolQueryBuilder.mustNot(TermQuery.of(t -> t.field("id").value(productId))._toQuery());
+    // Add text search
+    addTextSearch(searchProductRequest, boolQueryBuilder);
+
+    // Add filters
+    addFilters(searchProductRequest, boolQueryBuilder);
+
+    // Add status filters
+    addStatusFilters(boolQueryBuilder);
+
+    NativeQueryBuilder nativeQueryBuilder = NativeQuery.builder()
+        .withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())))
+        .withMaxResults(0)
+        .withTrackTotalHits(true);
+    facetAggregations.forEach(nativeQueryBuilder::withAggregation);
+
+    return nativeQueryBuilder.build();
+  }
+
+  /**
+   * Build a more_like_this query for the given source document. Text fields
+   * drive the similarity score, while a shared category or brand adds a boost.
+   * Other variants of the same product are excluded.
+   */
+  public NativeQuery buildSimilarProductsQuery(ProductDocument source, int limit) {
+    BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+
+    boolQueryBuilder.must(Query.of(q -> q.moreLikeThis(m -> m
+        .fields(QueryFragments.SIMILARITY_FIELDS)
+        .like(l -> l.document(d -> d
+            .index(productIndexRouting.indexFor(source.getRegion()).getIndexName())
+            .id(source.getId())
+            .routing(productIndexRouting.routingFor(source.getRegion()))))
+        .minTermFreq(1)
+        .minDocFreq(1)
+        .maxQueryTerms(25))));
+
+    // Exclude the current product and its sibling variants
+    boolQueryBuilder.mustNot(TermQuery.of(t -> t.field("id").value(source.getId()))._toQuery());
+    if (source.getProductId() != null) {
+      boolQueryBuilder.mustNot(
+          TermQuery.of(t -> t.field("product_id").value(source.getProductId().toString()))._toQuery());
+    }
+
+    if (source.getCategory() != null && source.getCategory().getId() != null) {
+      String categoryId = source.getCategory().getId().toString();
+      boolQueryBuilder.should(Query.of(q -> q.nested(n -> n
+          .path("category")
+          .query(TermQuery.of(t -> t.field("category.id").value(categoryId).boost(2.0f))._toQuery()))));
+    }
+
+    if (source.getBrand() != null && source.getBrand().getId() != null) {
+      String brandId = source.getBrand().getId().toString();
+      boolQueryBuilder.should(Query.of(q -> q.nested(n -> n
+          .path("brand")
+          .query(TermQuery.of(t -> t.field("brand.id").value(brandId))._toQuery()))));
+    }
 
     // Add status filters
     addStatusFilters(boolQueryBuilder);
 
-    // More like this query would be implemented here
-    // For now, using a simple approach
     Query baseQuery = Query.of(q -> q.bool(boolQueryBuilder.build()));
 
     return NativeQuery.builder()
@@ -221,18 +402,51 @@ public class ProductSearchQuery {
 
     return NativeQuery.builder()
         .withQuery(baseQuery)
-        .withSort(SortOptions.of(s -> s.field(f -> f.field("purchase_count").order(SortOrder.Desc))))
-        .withSort(SortOptions.of(s -> s.field(f -> f.field("rating").order(SortOrder.Desc))))
+        .withSort(QueryFragments.POPULARITY_SORT)
         .withPageable(pageable)
         .build();
   }
 
+  /**
+   * Terms on the nested object's id, with the display name carried as a single-bucket sub-aggregation
+   */
+  private Aggregation nestedTermsFacet(String path) {
+    return Aggregation.of(a -> a
+        .nested(n -> n.path(path))
+        .aggregations(FACET_IDS, Aggregation.of(ids -> ids
+            .terms(t -> t.field(path + ".id").size(facetSize))
+            .aggregations(FACET_NAMES, Aggregation.of(names -> names
+                .terms(t -> t.field(path + ".name.keyword").size(1)))))));
+  }
+
+  private Aggregation priceRangeFacet() {
+    List<AggregationRange> ranges = new ArrayList<>();
+    Double from = null;
+    for (Double to : facetPriceBreaks) {
+      ranges.add(priceRange(from, to));
+      from = to;
+    }
+    ranges.add(priceRange(from, null));
+
+    return Aggregation.of(a -> a.range(r -> r.field("price").ranges(ranges)));
+  }
+
+  private AggregationRange priceRange(Double from, Double to) {
+    String key = rangeBound(from) + "-" + rangeBound(to);
+    return AggregationRange.of(r -> r.key(key).from(from).to(to));
+  }
+
+  // Exact bound, so 9.5 and 9.99 keep distinct keys while 10.0 still reads as 10
+  private static String rangeBound(Double bound) {
+    return bound != null ? BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString() : "*";
+  }
+
   private void addTextSearch(SearchProductRequest searchProductRequest, BoolQuery.Builder boolQueryBuilder) {
     if (StringUtils.hasLength(searchProductRequest.getKeyword())) {
       // Multi-match query for better text search
       MultiMatchQuery multiMatchQuery = MultiMatchQuery.of(m -> m
           .query(searchProductRequest.getKeyword())
-          .fields("name^3", "description^2", "brand.name^2", "category.name", "tags", "seo_keywords")
+          .fields(QueryFragments.TEXT_SEARCH_FIELDS)
           .fuzziness("AUTO")
           .operator(co.elastic.clients.elasticsearch._types.query_dsl.Operator.And));
 
@@ -258,21 +472,15 @@ public class ProductSearchQuery {
   }
 
   private void addStatusFilters(BoolQuery.Builder boolQueryBuilder) {
-    // Only show published products
-    boolQueryBuilder.filter(TermQuery.of(t -> t.field("is_published").value(true))._toQuery());
-
-    // Only show products with available inventory
-    boolQueryBuilder.filter(TermQuery.of(t -> t.field("inventory.is_in_stock").value(true))._toQuery());
+    // Only show published products with available inventory
+    boolQueryBuilder.filter(QueryFragments.STATUS_FILTERS);
   }
 
   private Query applyRegionBoosting(SearchProductRequest searchProductRequest, Query baseQuery) {
     if (searchProductRequest.region() != null) {
       return Query.of(q -> q.functionScore(fs -> fs
           .query(baseQuery)
-          .functions(f -> f
-              .filter(Query.of(
-                  fq -> fq.term(t -> t.field("region").value(FieldValue.of(searchProductRequest.region().toString())))))
-              .weight(5.0))
+          .functions(QueryFragments.regionBoost(searchProductRequest.region()))
           .boostMode(FunctionBoostMode.Multiply)
           .scoreMode(FunctionScoreMode.Sum)));
     } else {
@@ -306,7 +514,7 @@ public class ProductSearchQuery {
   /**
    * Build query for a specific partition
    */
-  private NativeQuery buildPartitionSpecificQuery(SearchProductRequest searchProductRequest, RegionPartition region) {
+  public NativeQuery buildPartitionSpecificQuery(SearchProductRequest searchProductRequest, RegionPartition region) {
     BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
 
     // Add text search
@@ -316,7 +524,7 @@ public class ProductSearchQuery {
     addFilters(searchProductRequest, boolQueryBuilder);
 
     // Add region filter
-    boolQueryBuilder.filter(TermQuery.of(t -> t.field("region").value(region.getCode()))._toQuery());
+    boolQueryBuilder.filter(QueryFragments.regionTerm(region));
 
     // Add status filters
     addStatusFilters(boolQueryBuilder);
@@ -350,7 +558,7 @@ public class ProductSearchQuery {
     addFilters(searchProductRequest, boolQueryBuilder);
 
     // Exclude the user's primary partition
-    boolQueryBuilder.mustNot(TermQuery.of(t -> t.field("region").value(excludeRegion.getCode()))._toQuery());
+    boolQueryBuilder.mustNot(QueryFragments.regionTerm(excludeRegion));
 
     // Add status filters
     addStatusFilters(boolQueryBuilder);
@@ -360,9 +568,7 @@ public class ProductSearchQuery {
     // Apply boosting for better results from other regions
     Query boostedQuery = Query.of(q -> q.functionScore(fs -> fs
         .query(baseQuery)
-        .functions(f -> f
-            .filter(Query.of(fq -> fq.matchAll(ma -> ma)))
-            .weight(0.7)) // Slightly lower weight for other partitions
+        .functions(QueryFragments.OTHER_PARTITION_WEIGHT) // Slightly lower weight for other partitions
         .boostMode(FunctionBoostMode.Multiply)
         .scoreMode(FunctionScoreMode.Sum)));
 
@@ -383,9 +589,9 @@ public class ProductSearchQuery {
    * Combine results from different partitions prioritizing the primary partition
    * TODO: Implement proper SearchHits combining when constructor is available
    */
-  private SearchHits<ProductDocument> combinePartitionResults(
-      SearchHits<ProductDocument> primaryResults,
-      SearchHits<ProductDocument> otherResults,
+  private <T> SearchHits<T> combinePartitionResults(
+      SearchHits<T> primaryResults,
+      SearchHits<T> otherResults,
       SearchProductRequest searchProductRequest) {
 
     log.info("Partition-first search: {} results from primary partition {}, {} from other partitions",
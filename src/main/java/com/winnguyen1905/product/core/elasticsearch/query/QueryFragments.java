@@ -0,0 +1,69 @@
+package com.winnguyen1905.product.core.elasticsearch.query;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScore;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+
+/**
+ * Immutable query pieces shared by every search. Client query objects are
+ * immutable once built, so the parts that do not depend on request input are
+ * built once here and only the per-request clauses are allocated per search.
+ */
+final class QueryFragments {
+
+  static final List<String> TEXT_SEARCH_FIELDS = List.of(
+      "name^3", "description^2", "brand.name^2", "category.name", "tags", "seo_keywords");
+
+  static final List<String> SIMILARITY_FIELDS = List.of("name", "description", "tags", "seo_keywords");
+
+  /** Published and in stock; inventory is a nested object so its flag needs a nested clause */
+  static final List<Query> STATUS_FILTERS = List.of(
+      TermQuery.of(t -> t.field("is_published").value(true))._toQuery(),
+      Query.of(q -> q.nested(n -> n
+          .path("inventory")
+          .query(TermQuery.of(t -> t.field("inventory.is_in_stock").value(true))._toQuery()))));
+
+  static final FunctionScore OTHER_PARTITION_WEIGHT = FunctionScore.of(f -> f
+      .filter(Query.of(q -> q.matchAll(m -> m)))
+      .weight(0.7));
+
+  static final List<SortOptions> POPULARITY_SORT = List.of(
+      SortOptions.of(s -> s.field(f -> f.field("purchase_count").order(SortOrder.Desc))),
+      SortOptions.of(s -> s.field(f -> f.field("rating").order(SortOrder.Desc))));
+
+  private static final Map<RegionPartition, Query> REGION_TERMS;
+  private static final Map<RegionPartition, FunctionScore> REGION_BOOSTS;
+
+  static {
+    Map<RegionPartition, Query> terms = new EnumMap<>(RegionPartition.class);
+    Map<RegionPartition, FunctionScore> boosts = new EnumMap<>(RegionPartition.class);
+    for (RegionPartition region : RegionPartition.values()) {
+      // Documents store the enum name, not the lowercase region code
+      Query term = TermQuery.of(t -> t.field("region").value(region.name()))._toQuery();
+      terms.put(region, term);
+      boosts.put(region, FunctionScore.of(f -> f.filter(term).weight(5.0)));
+    }
+    REGION_TERMS = Collections.unmodifiableMap(terms);
+    REGION_BOOSTS = Collections.unmodifiableMap(boosts);
+  }
+
+  private QueryFragments() {
+  }
+
+  static Query regionTerm(RegionPartition region) {
+    return REGION_TERMS.get(region);
+  }
+
+  static FunctionScore regionBoost(RegionPartition region) {
+    return REGION_BOOSTS.get(region);
+  }
+}
@@ -0,0 +1,76 @@
+package com.winnguyen1905.product.core.elasticsearch.query;
+
+import java.util.List;
+
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import com.winnguyen1905.product.core.elasticsearch.document.ProductCardHit;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductListingHit;
+import com.winnguyen1905.product.exception.BadRequestException;
+
+/**
+ * How much of each product document a search fetches, and the type its hits
+ * are read into. Narrow projections cut _source transfer, fetch-phase work
+ * and deserialization on listing endpoints.
+ */
+public final class SearchProjection<T> {
+
+  public static final SearchProjection<ProductListingHit> LISTING =
+      new SearchProjection<>("listing", ProductListingHit.class, ProductListingHit.SOURCE_FIELDS);
+
+  public static final SearchProjection<ProductCardHit> CARD =
+      new SearchProjection<>("card", ProductCardHit.class, ProductCardHit.SOURCE_FIELDS);
+
+  public static final SearchProjection<ProductDocument> FULL =
+      new SearchProjection<>("full", ProductDocument.class, null);
+
+  private static final List<SearchProjection<?>> VALUES = List.of(LISTING, CARD, FULL);
+
+  private final String code;
+  private final Class<T> hitType;
+  private final String[] includes;
+
+  private SearchProjection(String code, Class<T> hitType, String[] includes) {
+    this.code = code;
+    this.hitType = hitType;
+    this.includes = includes;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public Class<T> getHitType() {
+    return hitType;
+  }
+
+  /**
+   * Restrict the query's _source to this projection's fields
+   */
+  public <Q extends Query> Q applyTo(Q query) {
+    if (includes != null) {
+      query.addSourceFilter(new FetchSourceFilterBuilder().withIncludes(includes).build());
+    }
+    return query;
+  }
+
+  public static SearchProjection<?> fromCode(String code) {
+    if (code == null || code.trim().isEmpty()) {
+      return FULL;
+    }
+
+    for (SearchProjection<?> projection : VALUES) {
+      if (projection.code.equalsIgnoreCase(code.trim())) {
+        return projection;
+      }
+    }
+    throw new BadRequestException("Unknown search projection: " + code);
+  }
+
+  @Override
+  public String toString() {
+    return code;
+  }
+}
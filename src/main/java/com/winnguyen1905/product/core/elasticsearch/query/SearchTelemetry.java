@@ -0,0 +1,131 @@
+package com.winnguyen1905.product.core.elasticsearch.query;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records latency and hit counts per search shape. A shape is a small set of
+ * low-cardinality tags describing how a request is executed, so dashboards can
+ * compare e.g. fuzzy deep-page searches with exact first-page ones without
+ * tagging on the search term itself.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchTelemetry {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${elasticsearch.search.telemetry.slow-threshold-ms:500}")
+  private long slowThresholdMs;
+
+  @Value("${elasticsearch.search.telemetry.slow-sample-rate:0.1}")
+  private double slowSampleRate;
+
+  /**
+   * How a search request is executed; every field has a handful of values
+   */
+  public record SearchShape(String text, String strategy, String depth, String filters, String sort) {
+
+    public static SearchShape of(SearchProductRequest searchProductRequest, String strategy) {
+      return new SearchShape(
+          textMode(searchProductRequest.getKeyword()),
+          strategy,
+          depth(searchProductRequest.getPage().getPageNumber()),
+          filterCount(searchProductRequest.filters() != null ? searchProductRequest.filters().size() : 0),
+          searchProductRequest.sorts() == null || searchProductRequest.sorts().isEmpty() ? "relevance" : "sorted");
+    }
+
+    public Tags toTags() {
+      return Tags.of("text", text, "strategy", strategy, "depth", depth, "filters", filters, "sort", sort);
+    }
+
+    // fuzziness AUTO does not expand terms of two characters or fewer
+    private static String textMode(String keyword) {
+      if (!StringUtils.hasText(keyword)) {
+        return "none";
+      }
+      for (String term : keyword.trim().split("\\s+")) {
+        if (term.length() > 2) {
+          return "fuzzy";
+        }
+      }
+      return "exact";
+    }
+
+    private static String depth(int pageNumber) {
+      return pageNumber == 0 ? "first" : pageNumber < 5 ? "shallow" : "deep";
+    }
+
+    private static String filterCount(int filters) {
+      return filters == 0 ? "0" : filters <= 2 ? "1-2" : "3+";
+    }
+  }
+
+  /**
+   * Run a search and record its round-trip time, the time Elasticsearch reported
+   * for it and the number of hits. Slow searches are logged with their query
+   * JSON, sampled so a slow cluster does not flood the log.
+   */
+  public <T> SearchHits<T> record(SearchShape shape, NativeQuery query, Supplier<SearchHits<T>> search) {
+    Tags tags = shape.toTags();
+    long start = System.nanoTime();
+    try {
+      SearchHits<T> searchHits = search.get();
+      long roundTripNanos = System.nanoTime() - start;
+
+      Timer.builder("search.roundtrip")
+          .description("Client round-trip time of product searches")
+          .tags(tags)
+          .register(meterRegistry)
+          .record(roundTripNanos, TimeUnit.NANOSECONDS);
+
+      Duration took = searchHits.getExecutionDuration();
+      if (took != null) {
+        Timer.builder("search.took")
+            .description("Execution time reported by Elasticsearch")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(took);
+      }
+
+      DistributionSummary.builder("search.hits")
+          .description("Total hits per product search")
+          .tags(tags)
+          .register(meterRegistry)
+          .record(searchHits.getTotalHits());
+
+      logIfSlow(shape, query, roundTripNanos, took, searchHits.getTotalHits());
+      return searchHits;
+    } catch (RuntimeException e) {
+      meterRegistry.counter("search.errors", tags.and("exception", e.getClass().getSimpleName())).increment();
+      throw e;
+    }
+  }
+
+  private void logIfSlow(SearchShape shape, NativeQuery query, long roundTripNanos, Duration took, long totalHits) {
+    long roundTripMs = TimeUnit.NANOSECONDS.toMillis(roundTripNanos);
+    if (roundTripMs < slowThresholdMs || ThreadLocalRandom.current().nextDouble() >= slowSampleRate) {
+      return;
+    }
+    log.warn("Slow search {} took {} ms (es {} ms, {} hits): {}", shape, roundTripMs,
+        took != null ? took.toMillis() : "n/a", totalHits, query.getQuery());
+  }
+}
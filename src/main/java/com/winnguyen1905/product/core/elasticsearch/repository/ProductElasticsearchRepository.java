@@ -87,12 +87,6 @@ public interface ProductElasticsearchRepository extends ElasticsearchRepository<
   @Query("{\"bool\": {\"filter\": [{\"term\": {\"is_published\": true}}]}}")
   Page<ProductDocument> findPopularProducts(Pageable pageable);
 
-  /**
-   * Find similar products (placeholder - would need more complex implementation)
-   */
-  @Query("{\"bool\": {\"must_not\": [{\"term\": {\"id\": \"?0\"}}], \"filter\": [{\"term\": {\"is_published\": true}}]}}")
-  Page<ProductDocument> findSimilarProducts(String productId, Pageable pageable);
-
   /**
    * Text search suggestions
    */
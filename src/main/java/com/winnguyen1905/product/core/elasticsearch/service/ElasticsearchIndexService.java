@@ -3,6 +3,9 @@ package com.winnguyen1905.product.core.elasticsearch.service;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
@@ -10,16 +13,27 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.reindex.ReindexRequest;
+import org.springframework.data.elasticsearch.core.reindex.ReindexResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StreamUtils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winnguyen1905.product.core.elasticsearch.config.ProductIndexRouting;
 import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
 import com.winnguyen1905.product.persistance.elasticsearch.ESInventory;
 import com.winnguyen1905.product.persistance.elasticsearch.ESProductVariant;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +46,8 @@ public class ElasticsearchIndexService {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
     private final ObjectMapper objectMapper;
+    private final ProductIndexRouting productIndexRouting;
+    private final SearchSynonymService searchSynonymService;
     private volatile boolean indexInitialized = false;
 
     @EventListener
@@ -57,47 +73,135 @@ public class ElasticsearchIndexService {
 
     public void createProductIndex() {
         try {
-            IndexOperations indexOps = elasticsearchTemplate.indexOps(ProductDocument.class);
-            
-            // Check if index exists without creating it
-            if (indexOps.exists()) {
-                log.info("Products index already exists");
-                return;
-            }
-
-            // Read settings and mappings from JSON file
-            String settingsJson = loadJsonFromClasspath("elasticsearch/product-settings.json");
-            JsonNode settingsNode = objectMapper.readTree(settingsJson);
-            
-            // Extract settings and mappings
-            JsonNode settings = settingsNode.get("settings");
-            JsonNode mappings = settingsNode.get("mappings");
-            
-            // Create index with settings
-            if (settings != null) {
-                Document settingsDoc = Document.parse(settings.toString());
-                indexOps.create(settingsDoc);
-                log.info("Created products index with custom settings");
-            } else {
-                indexOps.create();
-                log.info("Created products index with default settings");
-            }
-            
-            // Apply mappings
-            if (mappings != null) {
-                Document mappingDoc = Document.parse(mappings.toString());
-                indexOps.putMapping(mappingDoc);
-                log.info("Applied custom mappings to products index");
+            // The search analyzer references the synonyms set, so it has to exist first
+            searchSynonymService.ensureSynonymsSet();
+            switch (productIndexRouting.getTopology()) {
+                case PER_REGION -> createRegionalProductIndices();
+                case ROUTED -> createProductIndex(productIndexRouting.allRegions(), productIndexRouting.getRoutedShards(),
+                        productIndexRouting.getRoutedPartitionSize());
+                default -> createProductIndex(productIndexRouting.allRegions(), null, null);
             }
-            
-            log.info("Successfully initialized Elasticsearch products index");
-            
         } catch (Exception e) {
             log.error("Failed to initialize Elasticsearch products index: {}", e.getMessage(), e);
             // Don't throw exception to prevent application startup failure
         }
     }
 
+    /**
+     * One index per region, all joined under the products alias so unscoped
+     * reads and the repository keep working unchanged
+     */
+    private void createRegionalProductIndices() throws IOException {
+        String alias = productIndexRouting.getAlias();
+        for (String indexName : productIndexRouting.regionIndexNames()) {
+            createProductIndex(IndexCoordinates.of(indexName), null, null);
+        }
+
+        if (isConcreteIndex(alias)) {
+            migrateToRegionalIndices(alias);
+            return;
+        }
+        for (String indexName : productIndexRouting.regionIndexNames()) {
+            elasticsearchTemplate.indexOps(IndexCoordinates.of(indexName))
+                    .alias(new AliasActions(new AliasAction.Add(AliasActionParameters.builder()
+                            .withIndices(indexName)
+                            .withAliases(alias)
+                            .build())));
+        }
+        log.info("Products alias '{}' covers regional indices {}", alias, productIndexRouting.regionIndexNames());
+    }
+
+    /** Whether the name is an index of its own rather than an alias */
+    private boolean isConcreteIndex(String name) {
+        IndexOperations indexOps = elasticsearchTemplate.indexOps(IndexCoordinates.of(name));
+        return indexOps.exists() && indexOps.getInformation().stream()
+                .anyMatch(information -> name.equals(information.getName()));
+    }
+
+    /**
+     * Move from the single products index to per-region indices: copy each
+     * region's documents into its index, then in one alias request drop the old
+     * index and point the alias at the regional ones, so readers switch over
+     * without a window where the name resolves to nothing.
+     */
+    private void migrateToRegionalIndices(String alias) {
+        IndexCoordinates source = IndexCoordinates.of(alias);
+        log.info("Migrating concrete index '{}' to regional indices", alias);
+
+        long migrated = 0;
+        for (RegionPartition region : RegionPartition.values()) {
+            ReindexRequest request = ReindexRequest.builder(source,
+                    IndexCoordinates.of(productIndexRouting.regionIndexName(region)))
+                    .withSourceQuery(NativeQuery.builder()
+                            .withQuery(Query.of(q -> q.term(t -> t.field("region").value(region.name()))))
+                            .build())
+                    .build();
+            ReindexResponse response = elasticsearchTemplate.reindex(request);
+            if (!response.getFailures().isEmpty()) {
+                throw new IllegalStateException("Reindex of region " + region.getCode() + " had "
+                        + response.getFailures().size() + " failures, keeping index '" + alias + "'");
+            }
+            migrated += response.getCreated() + response.getUpdated();
+        }
+
+        long total = elasticsearchTemplate.count(NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .build(), source);
+        if (migrated < total) {
+            log.warn("{} of {} documents in '{}' have no region and were not migrated; a full reindex restores them",
+                    total - migrated, total, alias);
+        }
+
+        List<AliasAction> actions = new ArrayList<>();
+        actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(alias).build()));
+        for (String indexName : productIndexRouting.regionIndexNames()) {
+            actions.add(new AliasAction.Add(AliasActionParameters.builder()
+                    .withIndices(indexName)
+                    .withAliases(alias)
+                    .build()));
+        }
+        elasticsearchTemplate.indexOps(source).alias(new AliasActions(actions.toArray(AliasAction[]::new)));
+        log.info("Migrated {} documents; alias '{}' now covers regional indices {}", migrated, alias,
+                productIndexRouting.regionIndexNames());
+    }
+
+    private void createProductIndex(IndexCoordinates index, Integer numberOfShards, Integer routingPartitionSize)
+            throws IOException {
+        IndexOperations indexOps = elasticsearchTemplate.indexOps(index);
+
+        // Check if index exists without creating it
+        if (indexOps.exists()) {
+            log.info("Index '{}' already exists", index.getIndexName());
+            return;
+        }
+
+        // Read settings and mappings from JSON file
+        String settingsJson = loadJsonFromClasspath("elasticsearch/product-settings.json");
+        JsonNode settingsNode = objectMapper.readTree(settingsJson);
+
+        // Extract settings and mappings
+        JsonNode settings = settingsNode.get("settings");
+        JsonNode mappings = settingsNode.get("mappings");
+
+        Document settingsDoc = settings != null ? Document.parse(settings.toString()) : Document.create();
+        Document mappingDoc = mappings != null ? Document.parse(mappings.toString()) : Document.create();
+        if (numberOfShards != null) {
+            // Routed topology spreads regions over several shards
+            settingsDoc.put("number_of_shards", numberOfShards);
+        }
+        if (routingPartitionSize != null && routingPartitionSize > 1) {
+            // Each region covers a partition of shards; ES requires routing on every request then
+            settingsDoc.put("routing_partition_size", routingPartitionSize);
+            mappingDoc.put("_routing", Map.of("required", true));
+        }
+
+        // Settings and mappings in one request: _routing can only be set at creation
+        indexOps.create(settingsDoc, mappingDoc);
+        log.info("Created index '{}' with custom settings and mappings", index.getIndexName());
+
+        log.info("Successfully initialized Elasticsearch index '{}'", index.getIndexName());
+    }
+
     public void createInventoryIndex() {
         createBasicIndex(ESInventory.class, "inventory");
     }
@@ -164,6 +268,18 @@ public class ElasticsearchIndexService {
 
     public void deleteIndex() {
         try {
+            if (productIndexRouting.getTopology() == ProductIndexRouting.Topology.PER_REGION) {
+                // ES refuses to delete through an alias, so drop each regional index
+                for (String indexName : productIndexRouting.regionIndexNames()) {
+                    IndexOperations regionOps = elasticsearchTemplate.indexOps(IndexCoordinates.of(indexName));
+                    if (regionOps.exists()) {
+                        regionOps.delete();
+                        log.info("Deleted index '{}'", indexName);
+                    }
+                }
+                return;
+            }
+
             IndexOperations indexOps = elasticsearchTemplate.indexOps(ProductDocument.class);
             if (indexOps.exists()) {
                 indexOps.delete();
@@ -0,0 +1,291 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.winnguyen1905.product.config.InventoryChangedEvent;
+import com.winnguyen1905.product.core.elasticsearch.config.ProductIndexRouting;
+import com.winnguyen1905.product.persistance.entity.EProductVariant;
+import com.winnguyen1905.product.persistance.repository.ProductVariantRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Propagates stock changes to the search index as partial updates of the
+ * inventory fields and the listing's stock flags. Changes are debounced per
+ * SKU, and a SKU is only written when it goes in or out of stock, in or out of
+ * low stock, or its quantity crosses into another bucket, so checkout traffic
+ * does not turn into one reindex per reservation.
+ *
+ * What the index was last told per SKU is kept in Redis, shared by every
+ * instance and expiring after {@code indexed-state-ttl-hours}, so a change is
+ * compared with the latest write from any instance. A SKU without a recorded
+ * state is always written.
+ */
+@Slf4j
+@Service
+@Profile("!local")  // Exclude from local profile
+@RequiredArgsConstructor
+public class InventorySearchPropagator {
+
+  private static final String INDEXED_KEY_PREFIX = "search:indexed-stock:";
+
+  /** Caches whose entries are filtered on availability */
+  private static final List<String> SEARCH_CACHES = List.of("product-search", "product-facets",
+      "product-category-search", "product-price-search", "similar-products", "popular-products",
+      "product-suggestions");
+
+  private final ElasticsearchOperations elasticsearchOperations;
+  private final ProductVariantRepository productVariantRepository;
+  private final ProductIndexRouting productIndexRouting;
+  private final CacheManager cacheManager;
+  private final LocalProductSearchIndex localProductSearchIndex;
+  private final StringRedisTemplate stringRedisTemplate;
+
+  /** Latest unflushed change per SKU; later events overwrite earlier ones */
+  private final Map<String, InventoryChangedEvent> pending = new ConcurrentHashMap<>();
+
+  @Value("${elasticsearch.inventory-sync.stock-buckets:1,5,20,100}")
+  private List<Integer> stockBuckets;
+
+  @Value("${elasticsearch.inventory-sync.bulk-size:500}")
+  private int bulkSize;
+
+  @Value("${elasticsearch.inventory-sync.indexed-state-ttl-hours:24}")
+  private long indexedStateTtlHours;
+
+  private record IndexedStock(boolean inStock, boolean lowStock, int bucket) {
+
+    String encode() {
+      return (inStock ? "1" : "0") + ":" + (lowStock ? "1" : "0") + ":" + bucket;
+    }
+
+    /** Null for values this version cannot read, so the SKU is written again */
+    static IndexedStock decode(String value) {
+      String[] parts = value.split(":");
+      if (parts.length != 3) {
+        return null;
+      }
+      return new IndexedStock("1".equals(parts[0]), "1".equals(parts[1]), Integer.parseInt(parts[2]));
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onInventoryChanged(InventoryChangedEvent event) {
+    if (event.getSku() != null) {
+      pending.put(event.getSku(), event);
+      localProductSearchIndex.updateStock(event.getSku(), event.getQuantityAvailable());
+    }
+  }
+
+  /**
+   * Queue a SKU for propagation regardless of what was last indexed
+   */
+  public void forceUpdate(InventoryChangedEvent event) {
+    try {
+      stringRedisTemplate.delete(INDEXED_KEY_PREFIX + event.getSku());
+    } catch (Exception e) {
+      log.debug("Failed to reset indexed stock of {}: {}", event.getSku(), e.getMessage());
+    }
+    pending.put(event.getSku(), event);
+  }
+
+  @Scheduled(fixedDelayString = "${elasticsearch.inventory-sync.flush-interval-ms:1000}")
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    Map<String, InventoryChangedEvent> drained = new HashMap<>();
+    for (String sku : pending.keySet()) {
+      InventoryChangedEvent event = pending.remove(sku);
+      if (event != null) {
+        drained.put(sku, event);
+      }
+    }
+    try {
+      // Variants first: the low-stock flag depends on the product's threshold
+      Map<String, EProductVariant> variants = productVariantRepository.findBySkuIn(drained.keySet()).stream()
+          .collect(Collectors.toMap(EProductVariant::getSku, Function.identity(), (a, b) -> a));
+      Map<String, IndexedStock> previous = readIndexed(new ArrayList<>(variants.keySet()));
+      Map<String, InventoryChangedEvent> batch = new HashMap<>();
+      Map<String, IndexedStock> targets = new HashMap<>();
+      variants.forEach((sku, variant) -> {
+        IndexedStock target = toIndexedStock(drained.get(sku),
+            ProductDocumentMapper.lowStockThreshold(variant.getProduct()));
+        if (!target.equals(previous.get(sku))) {
+          batch.put(sku, drained.get(sku));
+          targets.put(sku, target);
+        }
+      });
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      // Group by region so each bulk request targets one index and routing value
+      Map<RegionPartition, List<UpdateQuery>> updatesByRegion = new HashMap<>();
+      Map<String, String> skuByDocument = new HashMap<>();
+      for (InventoryChangedEvent event : batch.values()) {
+        EProductVariant variant = variants.get(event.getSku());
+        RegionPartition region = variant.getProduct().getRegion();
+        String documentId = variant.getId().toString();
+        skuByDocument.put(documentId, event.getSku());
+        updatesByRegion.computeIfAbsent(region, r -> new ArrayList<>())
+            .add(toUpdateQuery(documentId, productIndexRouting.routingFor(region), event,
+                targets.get(event.getSku()).lowStock()));
+      }
+
+      Set<String> failedDocuments = new HashSet<>();
+      for (Map.Entry<RegionPartition, List<UpdateQuery>> entry : updatesByRegion.entrySet()) {
+        List<UpdateQuery> updates = entry.getValue();
+        for (int from = 0; from < updates.size(); from += bulkSize) {
+          try {
+            elasticsearchOperations.bulkUpdate(updates.subList(from, Math.min(from + bulkSize, updates.size())),
+                productIndexRouting.indexFor(entry.getKey()));
+          } catch (BulkFailureException e) {
+            failedDocuments.addAll(e.getFailedDocuments().keySet());
+            requeue(retryableFailures(e), skuByDocument, batch);
+          }
+        }
+      }
+
+      Map<String, IndexedStock> written = new HashMap<>();
+      skuByDocument.forEach((documentId, sku) -> {
+        if (!failedDocuments.contains(documentId)) {
+          written.put(sku, targets.get(sku));
+        }
+      });
+      recordIndexed(written);
+
+      boolean availabilityFlipped = written.entrySet().stream().anyMatch(entry -> {
+        IndexedStock before = previous.get(entry.getKey());
+        return before == null || before.inStock() != entry.getValue().inStock();
+      });
+      if (availabilityFlipped) {
+        // Hits are filtered on is_in_stock, so cached pages may now list sold-out products
+        SEARCH_CACHES.stream().map(cacheManager::getCache).filter(Objects::nonNull).forEach(Cache::clear);
+      }
+
+      log.debug("Propagated inventory for {} SKUs, {} documents failed", written.size(), failedDocuments.size());
+    } catch (Exception e) {
+      log.warn("Inventory propagation failed, re-queueing {} SKUs: {}", drained.size(), e.getMessage());
+      drained.forEach(pending::putIfAbsent);
+    }
+  }
+
+  /** Failed items other than documents not indexed yet, which the next full sync covers */
+  private static Set<String> retryableFailures(BulkFailureException e) {
+    Set<String> failed = new HashSet<>();
+    e.getFailedDocuments().forEach((documentId, failure) -> {
+      if (failure.status() == null || failure.status() != 404) {
+        failed.add(documentId);
+      }
+    });
+    return failed;
+  }
+
+  private void requeue(Set<String> documentIds, Map<String, String> skuByDocument,
+      Map<String, InventoryChangedEvent> batch) {
+    if (!documentIds.isEmpty()) {
+      log.warn("Inventory propagation failed for {} documents, re-queueing them", documentIds.size());
+    }
+    documentIds.stream()
+        .map(skuByDocument::get)
+        .filter(Objects::nonNull)
+        .forEach(sku -> pending.putIfAbsent(sku, batch.get(sku)));
+  }
+
+  private Map<String, IndexedStock> readIndexed(List<String> skus) {
+    Map<String, IndexedStock> states = new HashMap<>();
+    try {
+      List<String> values = stringRedisTemplate.opsForValue()
+          .multiGet(skus.stream().map(sku -> INDEXED_KEY_PREFIX + sku).toList());
+      for (int i = 0; values != null && i < skus.size(); i++) {
+        if (values.get(i) != null) {
+          states.put(skus.get(i), IndexedStock.decode(values.get(i)));
+        }
+      }
+    } catch (Exception e) {
+      // Without the shared state every change is treated as significant
+      log.debug("Indexed stock state unavailable: {}", e.getMessage());
+    }
+    return states;
+  }
+
+  private void recordIndexed(Map<String, IndexedStock> states) {
+    if (states.isEmpty()) {
+      return;
+    }
+    Duration ttl = Duration.ofHours(indexedStateTtlHours);
+    try {
+      stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        StringRedisConnection stringConnection = (StringRedisConnection) connection;
+        states.forEach((sku, state) -> stringConnection.setEx(INDEXED_KEY_PREFIX + sku, ttl.toSeconds(),
+            state.encode()));
+        return null;
+      });
+    } catch (Exception e) {
+      log.debug("Failed to record indexed stock state: {}", e.getMessage());
+    }
+  }
+
+  private IndexedStock toIndexedStock(InventoryChangedEvent event, int lowStockThreshold) {
+    int quantity = event.getQuantityAvailable();
+    int bucket = 0;
+    for (Integer threshold : stockBuckets) {
+      if (quantity >= threshold) {
+        bucket++;
+      }
+    }
+    return new IndexedStock(quantity > 0, ProductDocumentMapper.isLowStock(quantity, lowStockThreshold), bucket);
+  }
+
+  private UpdateQuery toUpdateQuery(String documentId, String routing, InventoryChangedEvent event,
+      boolean lowStock) {
+    Map<String, Object> inventory = new HashMap<>();
+    inventory.put("quantity_available", event.getQuantityAvailable());
+    inventory.put("is_in_stock", event.getQuantityAvailable() > 0);
+    inventory.put("is_low_stock", lowStock);
+    inventory.put("last_updated", Instant.now().toString());
+
+    Map<String, Object> listing = new HashMap<>();
+    listing.put("stock", event.getQuantityAvailable());
+    listing.put("in_stock", event.getQuantityAvailable() > 0);
+    listing.put("low_stock", lowStock);
+
+    // Partial doc: ES merges the inventory and listing objects into the stored source
+    return UpdateQuery.builder(documentId)
+        .withDocument(Document.from(Map.of("inventory", inventory, "listing", listing)))
+        .withRouting(routing)
+        .withRetryOnConflict(3)
+        .build();
+  }
+}
@@ -0,0 +1,414 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import com.winnguyen1905.product.common.constant.ProductType;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
+import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.persistance.entity.EProduct;
+import com.winnguyen1905.product.persistance.repository.ProductRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process inverted index over name, brand, category and SKU, used to keep
+ * search answering while Elasticsearch is unavailable. It is fed the same
+ * documents as the search index by {@link ProductSyncService}, and rebuilt
+ * from the database at startup and every {@code rebuild-interval-ms} so
+ * changes made through other instances are picked up. Matching is AND over
+ * terms with the last term treated as a prefix; there is no relevance
+ * scoring.
+ *
+ * Requests get the same narrowing as the search index: only published, in
+ * stock variants, the request's term filters, status and product type, and
+ * its sort order. Without a sort, results in the requested region come
+ * first, then by purchase count.
+ */
+@Slf4j
+@Service
+@Profile("!local")  // Exclude from local profile
+@RequiredArgsConstructor
+public class LocalProductSearchIndex {
+
+  private final ProductRepository productRepository;
+  private final ProductDocumentMapper productDocumentMapper;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${elasticsearch.search.local-fallback.enabled:true}")
+  private boolean enabled;
+
+  @Value("${elasticsearch.search.local-fallback.rebuild-page-size:500}")
+  private int rebuildPageSize;
+
+  private volatile Postings postings = new Postings();
+  private volatile boolean ready;
+
+  private record Entry(String id, UUID productId, String sku, RegionPartition region, int popularity,
+      String status, ProductType productType, Double rating, int viewCount, Instant createdDate,
+      Instant updatedDate, Map<String, Set<String>> filterValues, Set<String> tokens, ProductVariantReviewVm view) {
+
+    boolean inStock() {
+      return view.stock() > 0;
+    }
+
+    Entry withView(ProductVariantReviewVm updated) {
+      return new Entry(id, productId, sku, region, popularity, status, productType, rating, viewCount, createdDate,
+          updatedDate, filterValues, tokens, updated);
+    }
+  }
+
+  /** One generation of the index; rebuilds fill a new one and swap it in */
+  private static final class Postings {
+    final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    final NavigableMap<String, Set<String>> terms = new ConcurrentSkipListMap<>();
+    final Map<UUID, Set<String>> byProduct = new ConcurrentHashMap<>();
+    final Map<String, String> bySku = new ConcurrentHashMap<>();
+
+    void put(Entry entry) {
+      remove(entry.id());
+      entries.put(entry.id(), entry);
+      entry.tokens().forEach(token -> terms.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(entry.id()));
+      byProduct.computeIfAbsent(entry.productId(), p -> ConcurrentHashMap.newKeySet()).add(entry.id());
+      if (entry.sku() != null) {
+        bySku.put(entry.sku(), entry.id());
+      }
+    }
+
+    void remove(String id) {
+      Entry entry = entries.remove(id);
+      if (entry == null) {
+        return;
+      }
+      entry.tokens().forEach(token -> terms.computeIfPresent(token, (t, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      }));
+      byProduct.computeIfPresent(entry.productId(), (p, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+      if (entry.sku() != null) {
+        bySku.remove(entry.sku(), id);
+      }
+    }
+  }
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  /**
+   * Add or replace a document. Unpublished documents are dropped.
+   */
+  public synchronized void index(ProductDocument document, ProductType productType) {
+    if (!enabled || document == null || document.getId() == null) {
+      return;
+    }
+    if (!Boolean.TRUE.equals(document.getIsPublished())) {
+      postings.remove(document.getId());
+      return;
+    }
+    ProductVariantReviewVm view = productDocumentMapper.toProductVariantReviewVm(document);
+    if (view != null) {
+      postings.put(toEntry(document, productType, view));
+    }
+  }
+
+  public synchronized void removeProduct(UUID productId) {
+    Set<String> ids = postings.byProduct.get(productId);
+    if (ids != null) {
+      List.copyOf(ids).forEach(postings::remove);
+    }
+  }
+
+  /**
+   * Track stock so sold-out variants drop out of fallback results
+   */
+  public synchronized void updateStock(String sku, int quantityAvailable) {
+    String id = sku != null ? postings.bySku.get(sku) : null;
+    Entry entry = id != null ? postings.entries.get(id) : null;
+    if (entry == null || entry.view().stock() == quantityAvailable) {
+      return;
+    }
+    ProductVariantReviewVm view = entry.view();
+    postings.entries.put(id, entry.withView(ProductVariantReviewVm.builder()
+        .id(view.id())
+        .productId(view.productId())
+        .name(view.name())
+        .sku(view.sku())
+        .price(view.price())
+        .features(view.features())
+        .imageUrl(view.imageUrl())
+        .stock(quantityAvailable)
+        .build()));
+  }
+
+  public PagedResponse<ProductVariantReviewVm> search(SearchProductRequest searchProductRequest) {
+    Postings current = postings;
+    List<String> queryTerms = tokenize(searchProductRequest.getKeyword());
+
+    List<Entry> matches = new ArrayList<>();
+    if (queryTerms.isEmpty()) {
+      current.entries.values().stream()
+          .filter(entry -> accepts(entry, searchProductRequest))
+          .forEach(matches::add);
+    } else {
+      for (String id : matchingIds(current, queryTerms)) {
+        Entry entry = current.entries.get(id);
+        if (entry != null && accepts(entry, searchProductRequest)) {
+          matches.add(entry);
+        }
+      }
+    }
+
+    matches.sort(ordering(searchProductRequest));
+
+    int pageNumber = searchProductRequest.getPage().getPageNumber();
+    int pageSize = searchProductRequest.getPage().getPageSize();
+    int from = Math.min(pageNumber * pageSize, matches.size());
+    int to = Math.min(from + pageSize, matches.size());
+    int totalPages = (int) Math.ceil((double) matches.size() / pageSize);
+
+    return PagedResponse.<ProductVariantReviewVm>builder()
+        .content(matches.subList(from, to).stream().map(Entry::view).toList())
+        .pageNumber(pageNumber)
+        .pageSize(pageSize)
+        .totalElements(matches.size())
+        .totalPages(totalPages)
+        .isLastPage(pageNumber >= totalPages - 1)
+        .build();
+  }
+
+  /**
+   * Rebuild from the database at startup and then periodically. Each page's
+   * entities are detached once mapped, so memory stays at one page however
+   * large the catalogue is.
+   */
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${elasticsearch.search.local-fallback.rebuild-interval-ms:600000}",
+      fixedDelayString = "${elasticsearch.search.local-fallback.rebuild-interval-ms:600000}")
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    log.info("Building local product search index");
+
+    Postings rebuilt = new Postings();
+    int pageNumber = 0;
+    Page<EProduct> page;
+    try {
+      do {
+        page = productRepository.findAll(PageRequest.of(pageNumber++, rebuildPageSize));
+        for (EProduct product : page.getContent()) {
+          if (!Boolean.TRUE.equals(product.getIsPublished())) {
+            continue;
+          }
+          for (ProductDocument document : productDocumentMapper.toProductDocuments(product)) {
+            ProductVariantReviewVm view = productDocumentMapper.toProductVariantReviewVm(document);
+            if (document != null && view != null) {
+              rebuilt.put(toEntry(document, product.getProductType(), view));
+            }
+          }
+        }
+        entityManager.clear();
+      } while (page.hasNext());
+    } catch (Exception e) {
+      log.error("Failed to build local product search index: {}", e.getMessage(), e);
+      return;
+    }
+
+    postings = rebuilt;
+    ready = true;
+    log.info("Local product search index built with {} documents and {} terms",
+        rebuilt.entries.size(), rebuilt.terms.size());
+  }
+
+  private Set<String> matchingIds(Postings current, List<String> queryTerms) {
+    Set<String> result = null;
+    for (int i = 0; i < queryTerms.size(); i++) {
+      String term = queryTerms.get(i);
+      Set<String> ids = new HashSet<>();
+      if (i == queryTerms.size() - 1) {
+        // Last term is usually still being typed
+        current.terms.subMap(term, true, term + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+      } else {
+        ids.addAll(current.terms.getOrDefault(term, Set.of()));
+      }
+
+      if (result == null) {
+        result = ids;
+      } else {
+        result.retainAll(ids);
+      }
+      if (result.isEmpty()) {
+        break;
+      }
+    }
+    return result != null ? result : Set.of();
+  }
+
+  /** Same narrowing as the search query: status filters, then the request's own filters */
+  private static boolean accepts(Entry entry, SearchProductRequest request) {
+    if (!entry.inStock()) {
+      return false;
+    }
+    if (request.status() != null && !request.status().name().equalsIgnoreCase(entry.status())) {
+      return false;
+    }
+    if (request.productType() != null && request.productType() != entry.productType()) {
+      return false;
+    }
+    if (request.filters() != null) {
+      for (SearchProductRequest.Filter filter : request.filters()) {
+        if (filter == null || filter.field() == null || filter.values() == null) {
+          continue;
+        }
+        Set<String> values = entry.filterValues().getOrDefault(filter.field(), Set.of());
+        if (filter.values().stream().map(value -> value.toLowerCase(Locale.ROOT)).noneMatch(values::contains)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Comparator<Entry> ordering(SearchProductRequest request) {
+    Comparator<Entry> ordering = null;
+    if (request.sorts() != null) {
+      for (SearchProductRequest.Sort sort : request.sorts()) {
+        Comparator<Entry> bySort = sortComparator(sort);
+        if (bySort != null) {
+          ordering = ordering == null ? bySort : ordering.thenComparing(bySort);
+        }
+      }
+    }
+    if (ordering == null) {
+      RegionPartition region = request.region();
+      ordering = Comparator.<Entry>comparingInt(entry -> region != null && entry.region() == region ? 0 : 1)
+          .thenComparing(Comparator.comparingInt(Entry::popularity).reversed());
+    }
+    return ordering.thenComparing(entry -> entry.view().name(), Comparator.nullsLast(Comparator.naturalOrder()));
+  }
+
+  /** Comparator for a sortable document field, null for fields the local index does not hold */
+  private static Comparator<Entry> sortComparator(SearchProductRequest.Sort sort) {
+    if (sort == null || sort.field() == null) {
+      return null;
+    }
+    Comparator<Entry> ascending = switch (sort.field()) {
+      case "price" -> Comparator.comparingDouble(entry -> entry.view().price());
+      case "rating" -> Comparator.comparing(Entry::rating, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "purchase_count" -> Comparator.comparingInt(Entry::popularity);
+      case "view_count" -> Comparator.comparingInt(Entry::viewCount);
+      case "created_date" -> Comparator.comparing(Entry::createdDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "updated_date" -> Comparator.comparing(Entry::updatedDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "name", "name.keyword" -> Comparator.comparing(entry -> entry.view().name(),
+          Comparator.nullsFirst(Comparator.naturalOrder()));
+      default -> null;
+    };
+    // Same default direction as the search query: descending unless asc is asked for
+    return ascending == null || "asc".equalsIgnoreCase(sort.order()) ? ascending : ascending.reversed();
+  }
+
+  /** Values of the keyword fields a request filter can name, lowercased */
+  private static Map<String, Set<String>> filterValues(ProductDocument document) {
+    Map<String, Set<String>> values = new HashMap<>();
+    putFilterValue(values, "id", document.getId());
+    putFilterValue(values, "product_id", document.getProductId());
+    putFilterValue(values, "variant_id", document.getVariantId());
+    putFilterValue(values, "shop_id", document.getShopId());
+    putFilterValue(values, "region", document.getRegion());
+    putFilterValue(values, "sku", document.getSku());
+    putFilterValue(values, "currency", document.getCurrency());
+    putFilterValue(values, "status", document.getStatus());
+    putFilterValue(values, "is_published", document.getIsPublished());
+    putFilterValue(values, "is_featured", document.getIsFeatured());
+    if (document.getTags() != null) {
+      document.getTags().forEach(tag -> putFilterValue(values, "tags", tag));
+    }
+    if (document.getSeoKeywords() != null) {
+      document.getSeoKeywords().forEach(keyword -> putFilterValue(values, "seo_keywords", keyword));
+    }
+    if (document.getFeatures() != null) {
+      document.getFeatures().forEach((key, value) -> {
+        putFilterValue(values, "features." + key, value);
+        putFilterValue(values, "features." + key + ".keyword", value);
+      });
+    }
+    values.replaceAll((field, fieldValues) -> Set.copyOf(fieldValues));
+    return Map.copyOf(values);
+  }
+
+  private static void putFilterValue(Map<String, Set<String>> values, String field, Object value) {
+    if (value != null) {
+      values.computeIfAbsent(field, f -> new HashSet<>()).add(Objects.toString(value).toLowerCase(Locale.ROOT));
+    }
+  }
+
+  private Entry toEntry(ProductDocument document, ProductType productType, ProductVariantReviewVm view) {
+    Set<String> tokens = new HashSet<>(tokenize(document.getName()));
+    if (document.getBrand() != null) {
+      tokens.addAll(tokenize(document.getBrand().getName()));
+    }
+    if (document.getCategory() != null) {
+      tokens.addAll(tokenize(document.getCategory().getName()));
+    }
+    if (StringUtils.hasText(document.getSku())) {
+      tokens.add(document.getSku().toLowerCase(Locale.ROOT));
+      tokens.addAll(tokenize(document.getSku()));
+    }
+
+    return new Entry(document.getId(), document.getProductId(), document.getSku(), document.getRegion(),
+        document.getPurchaseCount() != null ? document.getPurchaseCount() : 0, document.getStatus(), productType,
+        document.getRating(), document.getViewCount() != null ? document.getViewCount() : 0,
+        document.getCreatedDate(), document.getUpdatedDate(), filterValues(document), Set.copyOf(tokens), view);
+  }
+
+  private static List<String> tokenize(String text) {
+    if (!StringUtils.hasText(text)) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
@@ -9,7 +9,9 @@ import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
+import com.winnguyen1905.product.core.elasticsearch.document.ProductCardHit;
 import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductListingHit;
 import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
 import com.winnguyen1905.product.persistance.entity.EBrand;
 import com.winnguyen1905.product.persistance.entity.ECategory;
@@ -109,7 +111,9 @@ public class ProductDocumentMapper {
           .createdBy(product.getCreatedBy())
           .updatedBy(product.getUpdatedBy());
 
-      return builder.build();
+      ProductDocument document = builder.build();
+      document.setListing(toListingDocument(document, product));
+      return document;
     } catch (Exception e) {
       log.error("Error mapping product entity to document: {}", e.getMessage(), e);
       return null;
@@ -141,6 +145,79 @@ public class ProductDocumentMapper {
     }
   }
 
+  /**
+   * Convert a card-projected search hit to ProductVariantReviewVm
+   */
+  public ProductVariantReviewVm toProductVariantReviewVm(ProductCardHit hit) {
+    if (hit == null) {
+      return null;
+    }
+
+    return ProductVariantReviewVm.builder()
+        .id(hit.getVariantId() != null ? hit.getVariantId() : hit.getProductId())
+        .productId(hit.getProductId())
+        .name(hit.getName())
+        .price(hit.getPrice() != null ? hit.getPrice() : 0.0)
+        .imageUrl(hit.getImageUrl())
+        .features(hit.getFeatures())
+        .stock(hit.getInventory() != null && hit.getInventory().getQuantityAvailable() != null
+            ? hit.getInventory().getQuantityAvailable() : 0)
+        .sku(hit.getSku())
+        .build();
+  }
+
+  /**
+   * Copy a listing hit's precomputed tile into the review view model. Hits on
+   * documents indexed before listings existed are mapped from their card
+   * fields instead.
+   */
+  public ProductVariantReviewVm toProductVariantReviewVm(ProductListingHit hit) {
+    ProductDocument.ListingDocument listing = toListingDocument(hit);
+    if (listing == null) {
+      return null;
+    }
+
+    return ProductVariantReviewVm.builder()
+        .id(listing.getId())
+        .productId(listing.getProductId())
+        .name(listing.getName())
+        .price(listing.getPrice() != null ? listing.getPrice() : 0.0)
+        .imageUrl(listing.getImageUrl())
+        .features(hit.getFeatures())
+        .stock(listing.getStock() != null ? listing.getStock() : 0)
+        .sku(listing.getSku())
+        .build();
+  }
+
+  /**
+   * The hit's stored listing, or one built from its card fields when the
+   * document predates listings. Fields only resolved at index time, like the
+   * price range, brand and category path, stay empty until a reindex.
+   */
+  public ProductDocument.ListingDocument toListingDocument(ProductListingHit hit) {
+    if (hit == null) {
+      return null;
+    }
+    if (hit.getListing() != null) {
+      return hit.getListing();
+    }
+
+    ProductDocument.InventoryDocument inventory = hit.getInventory();
+    int stock = inventory != null && inventory.getQuantityAvailable() != null ? inventory.getQuantityAvailable() : 0;
+    return ProductDocument.ListingDocument.builder()
+        .id(hit.getVariantId() != null ? hit.getVariantId() : hit.getProductId())
+        .productId(hit.getProductId())
+        .name(hit.getName())
+        .sku(hit.getSku())
+        .price(hit.getPrice())
+        .currency(hit.getCurrency())
+        .imageUrl(hit.getImageUrl())
+        .stock(stock)
+        .inStock(stock > 0)
+        .lowStock(inventory != null && Boolean.TRUE.equals(inventory.getIsLowStock()))
+        .build();
+  }
+
   /**
    * Convert list of ProductDocuments to ProductVariantReviewVms
    */
@@ -154,8 +231,46 @@ public class ProductDocumentMapper {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Low-stock threshold of a product's variants, 10 when the product sets none
+   */
+  public static int lowStockThreshold(EProduct product) {
+    return product.getLowStockThreshold() != null ? product.getLowStockThreshold() : 10;
+  }
+
+  public static boolean isLowStock(int quantityAvailable, int lowStockThreshold) {
+    return quantityAvailable > 0 && quantityAvailable <= lowStockThreshold;
+  }
+
   // Helper methods
 
+  /**
+   * Resolve everything a listing tile shows once, at index time
+   */
+  private ProductDocument.ListingDocument toListingDocument(ProductDocument document, EProduct product) {
+    ProductDocument.InventoryDocument inventory = document.getInventory();
+    int stock = inventory != null && inventory.getQuantityAvailable() != null ? inventory.getQuantityAvailable() : 0;
+
+    return ProductDocument.ListingDocument.builder()
+        .id(document.getVariantId() != null ? document.getVariantId() : document.getProductId())
+        .productId(document.getProductId())
+        .name(document.getName())
+        .sku(document.getSku())
+        .price(document.getPrice())
+        .minPrice(product.getMinPrice() != null ? product.getMinPrice().doubleValue() : document.getPrice())
+        .maxPrice(product.getMaxPrice() != null ? product.getMaxPrice().doubleValue() : document.getPrice())
+        .currency(document.getCurrency())
+        .imageUrl(document.getImageUrl())
+        .stock(stock)
+        .inStock(stock > 0)
+        .lowStock(inventory != null && Boolean.TRUE.equals(inventory.getIsLowStock()))
+        .brandName(document.getBrand() != null ? document.getBrand().getName() : null)
+        .categoryPath(document.getCategory() != null
+            ? (document.getCategory().getPath() != null ? document.getCategory().getPath() : document.getCategory().getName())
+            : null)
+        .build();
+  }
+
   private String buildProductName(EProduct product, EProductVariant variant) {
     if (variant == null || variant.getName() == null || variant.getName().trim().isEmpty()) {
       return product.getName();
@@ -205,7 +320,7 @@ public class ProductDocumentMapper {
     // Use variant's inventory quantities directly
     int quantityAvailable = variant.getInventoryQuantity() != null ? variant.getInventoryQuantity() : 0;
     int quantityReserved = variant.getReservedQuantity() != null ? variant.getReservedQuantity() : 0;
-    int lowStockThreshold = product.getLowStockThreshold() != null ? product.getLowStockThreshold() : 10;
+    int lowStockThreshold = lowStockThreshold(product);
 
     return ProductDocument.InventoryDocument.builder()
         .id(variant.getId()) // Use variant ID as inventory ID
@@ -215,7 +330,7 @@ public class ProductDocumentMapper {
         .quantitySold(0) // Default since not available from variant
         .lowStockThreshold(lowStockThreshold)
         .isInStock(quantityAvailable > 0)
-        .isLowStock(quantityAvailable <= lowStockThreshold && quantityAvailable > 0)
+        .isLowStock(isLowStock(quantityAvailable, lowStockThreshold))
         .lastUpdated(variant.getUpdatedDate())
         .build();
   }
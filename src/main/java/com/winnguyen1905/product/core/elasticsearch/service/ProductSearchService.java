@@ -1,26 +1,39 @@
 package com.winnguyen1905.product.core.elasticsearch.service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductListingHit;
 import com.winnguyen1905.product.core.elasticsearch.query.ProductSearchQuery;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchProjection;
 import com.winnguyen1905.product.core.elasticsearch.repository.ProductElasticsearchRepository;
 import com.winnguyen1905.product.core.model.request.SearchProductRequest;
 import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
 import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.core.model.viewmodel.SearchFacetsVm;
+import com.winnguyen1905.product.core.model.viewmodel.SearchFacetsVm.FacetBucket;
 import com.winnguyen1905.product.exception.BusinessLogicException;
+import com.winnguyen1905.product.exception.SearchUnavailableException;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,14 +46,19 @@ public class ProductSearchService {
   private final ProductElasticsearchRepository productElasticsearchRepository;
   private final ProductSearchQuery productSearchQuery;
   private final ProductDocumentMapper productDocumentMapper;
+  private final SimilarProductsService similarProductsService;
+  private final SearchRequestCoalescer searchRequestCoalescer;
 
-  @Cacheable(value = "product-search", key = "#searchProductRequest.toString()")
+  @Cacheable(value = "product-search", key = "#searchProductRequest.searchFingerprint()", sync = true)
   public PagedResponse<ProductVariantReviewVm> searchProducts(SearchProductRequest searchProductRequest) {
     log.info("Searching products with request: {} (partition-first: {})", 
              searchProductRequest, searchProductRequest.isPartitionFirstEnabled());
 
     try {
-      SearchHits<ProductDocument> searchHits = productSearchQuery.executeSearch(searchProductRequest);
+      // The precomputed listing is copied through; older documents fall back to their card fields
+      SearchHits<ProductListingHit> searchHits = searchRequestCoalescer.execute(
+          SearchProjection.LISTING.getCode() + ":" + searchProductRequest.searchFingerprint(),
+          () -> productSearchQuery.executeSearch(searchProductRequest, SearchProjection.LISTING));
 
       List<ProductVariantReviewVm> content = searchHits.getSearchHits().stream()
           .map(hit -> productDocumentMapper.toProductVariantReviewVm(hit.getContent()))
@@ -78,12 +96,116 @@ public class ProductSearchService {
 
       return responseBuilder.build();
 
+    } catch (SearchUnavailableException | IllegalArgumentException e) {
+      throw e;
     } catch (Exception e) {
+      // Anything else came from the cluster; surface it so the circuit breaker counts it
       log.error("Error searching products: {}", e.getMessage(), e);
-      throw new BusinessLogicException("Failed to search products: " + e.getMessage());
+      throw new SearchUnavailableException("Failed to search products: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Search returning hits in the shape of the requested projection, e.g. lean
+   * listing tiles instead of full documents
+   */
+  @Cacheable(value = "product-search", key = "#projection.code + ':' + #searchProductRequest.searchFingerprint()", sync = true)
+  public <T> PagedResponse<T> searchProducts(SearchProductRequest searchProductRequest, SearchProjection<T> projection) {
+    log.info("Searching products with projection {}: {}", projection.getCode(), searchProductRequest);
+
+    try {
+      SearchHits<T> searchHits = searchRequestCoalescer.execute(
+          projection.getCode() + ":" + searchProductRequest.searchFingerprint(),
+          () -> productSearchQuery.executeSearch(searchProductRequest, projection));
+
+      List<T> content = searchHits.getSearchHits().stream()
+          .map(SearchHit::getContent)
+          .toList();
+
+      int pageNumber = searchProductRequest.getPage().getPageNumber();
+      int pageSize = searchProductRequest.getPage().getPageSize();
+      int totalPages = (int) Math.ceil((double) searchHits.getTotalHits() / pageSize);
+
+      return PagedResponse.<T>builder()
+          .content(content)
+          .pageNumber(pageNumber)
+          .pageSize(pageSize)
+          .totalElements(searchHits.getTotalHits())
+          .totalPages(totalPages)
+          .isLastPage(pageNumber >= totalPages - 1)
+          .build();
+
+    } catch (SearchUnavailableException | IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error searching products with projection {}: {}", projection.getCode(), e.getMessage(), e);
+      throw new SearchUnavailableException("Failed to search products: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Facet counts for a search. Cached under the filter-only fingerprint so paging
+   * through results reuses the same entry.
+   */
+  @Cacheable(value = "product-facets", key = "#searchProductRequest.facetFingerprint()", sync = true)
+  public SearchFacetsVm getFacets(SearchProductRequest searchProductRequest) {
+    log.info("Getting facets for request: {}", searchProductRequest.facetFingerprint());
+
+    try {
+      SearchHits<ProductDocument> searchHits = searchRequestCoalescer.execute(
+          "facets:" + searchProductRequest.facetFingerprint(),
+          () -> productSearchQuery.executeFacetSearch(searchProductRequest));
+
+      Map<String, Aggregate> aggregates = new HashMap<>();
+      if (searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations) {
+        aggregations.aggregationsAsMap()
+            .forEach((name, aggregation) -> aggregates.put(name, aggregation.aggregation().getAggregate()));
+      }
+
+      Map<String, List<FacetBucket>> attributes = new LinkedHashMap<>();
+      for (String attribute : productSearchQuery.getFacetAttributes()) {
+        List<FacetBucket> buckets = termsBuckets(aggregates.get(ProductSearchQuery.FACET_ATTRIBUTE_PREFIX + attribute));
+        if (!buckets.isEmpty()) {
+          attributes.put(attribute, buckets);
+        }
+      }
+
+      return SearchFacetsVm.builder()
+          .totalHits(searchHits.getTotalHits())
+          .brands(nestedTermsBuckets(aggregates.get(ProductSearchQuery.FACET_BRANDS)))
+          .categories(nestedTermsBuckets(aggregates.get(ProductSearchQuery.FACET_CATEGORIES)))
+          .priceRanges(rangeBuckets(aggregates.get(ProductSearchQuery.FACET_PRICE_RANGES)))
+          .attributes(attributes)
+          .build();
+
+    } catch (SearchUnavailableException | IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error getting search facets: {}", e.getMessage(), e);
+      throw new SearchUnavailableException("Failed to get search facets: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * Refresh-ahead for the cache warm-up: recompute the entry and overwrite it
+   * before it expires. Calling the cached method on {@code this} bypasses its
+   * {@code @Cacheable} lookup; the same goes for the two methods below.
+   */
+  @CachePut(value = "product-search", key = "#searchProductRequest.searchFingerprint()")
+  public PagedResponse<ProductVariantReviewVm> refreshSearchProducts(SearchProductRequest searchProductRequest) {
+    return searchProducts(searchProductRequest);
+  }
+
+  @CachePut(value = "product-facets", key = "#searchProductRequest.facetFingerprint()")
+  public SearchFacetsVm refreshFacets(SearchProductRequest searchProductRequest) {
+    return getFacets(searchProductRequest);
+  }
+
+  @CachePut(value = "popular-products", key = "#limit")
+  public List<ProductDocument> refreshPopularProducts(int limit) {
+    return getPopularProducts(limit);
+  }
+
   @Cacheable(value = "product-category-search", key = "#categoryId + '_' + #pageable.toString()")
   public Page<ProductDocument> searchByCategory(String categoryId, Pageable pageable) {
     log.info("Searching products by category: {}", categoryId);
@@ -120,20 +242,18 @@ public class ProductSearchService {
     }
   }
 
-  @Cacheable(value = "similar-products", key = "#productId")
-  public List<ProductDocument> findSimilarProducts(String productId, int limit) {
+  public List<ProductVariantReviewVm> findSimilarProducts(String productId, int limit) {
     log.info("Finding similar products for product ID: {}", productId);
 
     try {
-      return productElasticsearchRepository.findSimilarProducts(productId, PageRequest.of(0, limit))
-          .getContent();
+      return similarProductsService.getSimilarProducts(productId, limit);
     } catch (Exception e) {
       log.error("Error finding similar products: {}", e.getMessage(), e);
       throw new BusinessLogicException("Failed to find similar products: " + e.getMessage());
     }
   }
 
-  @Cacheable(value = "popular-products", key = "#limit")
+  @Cacheable(value = "popular-products", key = "#limit", sync = true)
   public List<ProductDocument> getPopularProducts(int limit) {
     log.info("Getting popular products with limit: {}", limit);
 
@@ -164,4 +284,58 @@ public class ProductSearchService {
       return future;
     }
   }
+
+  private List<FacetBucket> nestedTermsBuckets(Aggregate aggregate) {
+    if (aggregate == null || !aggregate.isNested()) {
+      return List.of();
+    }
+    Aggregate ids = aggregate.nested().aggregations().get(ProductSearchQuery.FACET_IDS);
+    if (ids == null || !ids.isSterms()) {
+      return List.of();
+    }
+
+    return ids.sterms().buckets().array().stream()
+        .map(bucket -> FacetBucket.builder()
+            .key(bucket.key().stringValue())
+            .label(bucketLabel(bucket))
+            .count(bucket.docCount())
+            .build())
+        .toList();
+  }
+
+  private String bucketLabel(StringTermsBucket bucket) {
+    Aggregate names = bucket.aggregations().get(ProductSearchQuery.FACET_NAMES);
+    if (names != null && names.isSterms() && !names.sterms().buckets().array().isEmpty()) {
+      return names.sterms().buckets().array().get(0).key().stringValue();
+    }
+    return bucket.key().stringValue();
+  }
+
+  private List<FacetBucket> termsBuckets(Aggregate aggregate) {
+    if (aggregate == null || !aggregate.isSterms()) {
+      return List.of();
+    }
+
+    return aggregate.sterms().buckets().array().stream()
+        .map(bucket -> FacetBucket.builder()
+            .key(bucket.key().stringValue())
+            .label(bucket.key().stringValue())
+            .count(bucket.docCount())
+            .build())
+        .toList();
+  }
+
+  private List<FacetBucket> rangeBuckets(Aggregate aggregate) {
+    if (aggregate == null || !aggregate.isRange()) {
+      return List.of();
+    }
+
+    return aggregate.range().buckets().array().stream()
+        .map(bucket -> FacetBucket.builder()
+            .key(bucket.key())
+            .label(bucket.key())
+            .count(bucket.docCount())
+            .build())
+        .toList();
+  }
 }
@@ -8,15 +8,23 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.winnguyen1905.product.config.InventoryChangedEvent;
+import com.winnguyen1905.product.config.ProductDeletedEvent;
+import com.winnguyen1905.product.core.elasticsearch.config.ProductIndexRouting;
 import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
 import com.winnguyen1905.product.core.elasticsearch.repository.ProductElasticsearchRepository;
 import com.winnguyen1905.product.exception.BusinessLogicException;
 import com.winnguyen1905.product.exception.ResourceNotFoundException;
+import com.winnguyen1905.product.persistance.entity.EInventory;
 import com.winnguyen1905.product.persistance.entity.EProduct;
 import com.winnguyen1905.product.persistance.entity.EProductVariant;
+import com.winnguyen1905.product.persistance.repository.InventoryRepository;
 import com.winnguyen1905.product.persistance.repository.ProductRepository;
 import com.winnguyen1905.product.persistance.repository.ProductVariantRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +40,11 @@ public class ProductSyncService {
   private final ProductRepository productRepository;
   private final ProductVariantRepository productVariantRepository;
   private final ElasticsearchIndexService elasticsearchIndexService;
+  private final ProductIndexRouting productIndexRouting;
+  private final SimilarProductsService similarProductsService;
+  private final InventorySearchPropagator inventorySearchPropagator;
+  private final InventoryRepository inventoryRepository;
+  private final LocalProductSearchIndex localProductSearchIndex;
 
   // @Async
   // @CacheEvict(value = { "product-search", "product-category-search",
@@ -57,7 +70,9 @@ public class ProductSyncService {
       for (EProductVariant variant : product.getVariants()) {
         ProductDocument document = productDocumentMapper.toProductDocument(product, variant);
         if (document != null) {
-          productElasticsearchRepository.save(document);
+          productIndexRouting.save(document);
+          localProductSearchIndex.index(document, product.getProductType());
+          similarProductsService.markDirty(document.getId());
           log.debug("Synced product variant: {} for product: {}", variant.getId(), product.getId());
         }
       }
@@ -84,7 +99,9 @@ public class ProductSyncService {
         for (EProductVariant variant : variants) {
           ProductDocument document = productDocumentMapper.toProductDocument(product, variant);
           if (document != null) {
-            productElasticsearchRepository.save(document);
+            productIndexRouting.save(document);
+            localProductSearchIndex.index(document, product.getProductType());
+            similarProductsService.markDirty(document.getId());
           }
         }
       }
@@ -96,48 +113,43 @@ public class ProductSyncService {
     }
   }
 
-  @Async
-  @CacheEvict(value = { "product-search", "product-category-search", "product-price-search", "similar-products",
-      "popular-products", "product-suggestions" }, allEntries = true)
+  /**
+   * Push the current stock of an inventory row to the index as a partial
+   * update of the inventory fields, without rebuilding the document
+   */
   public void syncInventory(UUID inventoryId) {
     log.info("Syncing inventory with ID: {}", inventoryId);
 
-    try {
-      List<EProductVariant> variants = productVariantRepository.findByInventoryId(inventoryId);
+    EInventory inventory = inventoryRepository.findById(inventoryId)
+        .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + inventoryId));
 
-      for (EProductVariant variant : variants) {
-        EProduct product = variant.getProduct();
-        if (product != null) {
-          ProductDocument document = productDocumentMapper.toProductDocument(product, variant);
-          if (document != null) {
-            productElasticsearchRepository.save(document);
-            log.debug("Synced inventory for variant: {}", variant.getId());
-          }
-        }
-      }
-
-      log.info("Successfully synced inventory: {} for {} variants", inventoryId, variants.size());
-    } catch (Exception e) {
-      log.error("Error syncing inventory {}: {}", inventoryId, e.getMessage(), e);
-      throw new BusinessLogicException("Failed to sync inventory: " + e.getMessage());
-    }
+    inventorySearchPropagator.forceUpdate(InventoryChangedEvent.of(inventory));
+    log.info("Queued inventory {} (SKU {}) for search propagation", inventoryId, inventory.getSku());
   }
 
+  /**
+   * Remove a deleted product's documents once the delete is committed. The
+   * region comes with the event, as the product row may be gone by now.
+   */
   @Async
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
   @CacheEvict(value = { "product-search", "product-category-search", "product-price-search", "similar-products",
       "popular-products", "product-suggestions" }, allEntries = true)
-  public void deleteProduct(UUID productId) {
+  public void deleteProduct(ProductDeletedEvent event) {
+    UUID productId = event.getProductId();
+    RegionPartition region = event.getRegion();
     log.info("Deleting product from Elasticsearch with ID: {}", productId);
 
     try {
-      List<EProductVariant> variants = productVariantRepository.findByProductId(productId);
-
-      for (EProductVariant variant : variants) {
-        productElasticsearchRepository.deleteById(variant.getId().toString());
-        log.debug("Deleted product variant: {} for product: {}", variant.getId(), productId);
+      for (UUID variantId : event.getVariantIds()) {
+        productIndexRouting.operationsFor(region)
+            .delete(variantId.toString(), productIndexRouting.indexFor(region));
+        log.debug("Deleted product variant: {} for product: {}", variantId, productId);
       }
 
-      log.info("Successfully deleted product: {} with {} variants from Elasticsearch", productId, variants.size());
+      localProductSearchIndex.removeProduct(productId);
+      log.info("Successfully deleted product: {} with {} variants from Elasticsearch", productId,
+          event.getVariantIds().size());
     } catch (Exception e) {
       log.error("Error deleting product {}: {}", productId, e.getMessage(), e);
       throw new BusinessLogicException("Failed to delete product: " + e.getMessage());
@@ -173,7 +185,8 @@ public class ProductSyncService {
           for (EProductVariant variant : variants) {
             ProductDocument document = productDocumentMapper.toProductDocument(product, variant);
             if (document != null) {
-              productElasticsearchRepository.save(document);
+              productIndexRouting.save(document);
+              localProductSearchIndex.index(document, product.getProductType());
             }
           }
 
@@ -0,0 +1,129 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.ReactiveSearchHits;
+import org.springframework.stereotype.Service;
+
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductListingHit;
+import com.winnguyen1905.product.core.elasticsearch.query.ProductSearchQuery;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchProjection;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
+import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.exception.SearchUnavailableException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking search path on {@link ReactiveElasticsearchOperations}. No thread
+ * is held while a query is in flight, so concurrent searches are bounded by the
+ * HTTP connection pool rather than by an executor.
+ */
+@Slf4j
+@Service
+@Profile("!local")  // Exclude from local profile
+@RequiredArgsConstructor
+public class ReactiveProductSearchService {
+
+  private final ReactiveElasticsearchOperations reactiveElasticsearchOperations;
+  private final ProductSearchQuery productSearchQuery;
+  private final ProductDocumentMapper productDocumentMapper;
+
+  @Value("${elasticsearch.search.reactive.timeout-ms:2000}")
+  private long timeoutMs;
+
+  @Value("${elasticsearch.search.reactive.stream-prefetch:64}")
+  private int streamPrefetch;
+
+  @Value("${elasticsearch.search.reactive.stream-max-results:1000}")
+  private int streamMaxResults;
+
+  /**
+   * Paged search. With partition-first enabled the user's region is queried
+   * first and, when it falls under the threshold, the region-boosted global
+   * query is used instead.
+   */
+  public Mono<PagedResponse<ProductVariantReviewVm>> searchProducts(SearchProductRequest searchProductRequest) {
+    Mono<ReactiveSearchHits<ProductListingHit>> hits;
+
+    if (searchProductRequest.isPartitionFirstEnabled() && searchProductRequest.region() != null) {
+      int thresholdResults = (int) (searchProductRequest.getPage().getPageSize()
+          * searchProductRequest.getPartitionFirstThreshold());
+
+      hits = search(productSearchQuery.buildPartitionSpecificQuery(searchProductRequest, searchProductRequest.region()))
+          .flatMap(primary -> primary.getTotalHits() < thresholdResults
+              ? search(productSearchQuery.buildSearchQuery(searchProductRequest))
+              : Mono.just(primary));
+    } else {
+      hits = search(productSearchQuery.buildSearchQuery(searchProductRequest));
+    }
+
+    return hits
+        .flatMap(searchHits -> searchHits.getSearchHits()
+            .map(hit -> productDocumentMapper.toProductVariantReviewVm(hit.getContent()))
+            .collectList()
+            .map(content -> toPagedResponse(content, searchHits.getTotalHits(), searchProductRequest)))
+        .timeout(Duration.ofMillis(timeoutMs))
+        .onErrorMap(this::toSearchException);
+  }
+
+  /**
+   * Stream listing hits for the request. Demand from the subscriber is honoured
+   * in batches of {@code stream-prefetch}, and the stream is capped at
+   * {@code stream-max-results} documents.
+   */
+  public Flux<ProductDocument.ListingDocument> streamListings(SearchProductRequest searchProductRequest) {
+    NativeQuery query = SearchProjection.LISTING.applyTo(productSearchQuery.buildSearchQuery(searchProductRequest));
+    query.setMaxResults(streamMaxResults);
+
+    return reactiveElasticsearchOperations.search(query, ProductListingHit.class)
+        .map(hit -> productDocumentMapper.toListingDocument(hit.getContent()))
+        .limitRate(streamPrefetch)
+        .timeout(Duration.ofMillis(timeoutMs))
+        .onErrorMap(this::toSearchException);
+  }
+
+  private Mono<ReactiveSearchHits<ProductListingHit>> search(NativeQuery query) {
+    return reactiveElasticsearchOperations.searchForHits(SearchProjection.LISTING.applyTo(query),
+        ProductListingHit.class);
+  }
+
+  private <T> PagedResponse<T> toPagedResponse(List<T> content, long totalHits,
+      SearchProductRequest searchProductRequest) {
+    int pageNumber = searchProductRequest.getPage().getPageNumber();
+    int pageSize = searchProductRequest.getPage().getPageSize();
+    int totalPages = (int) Math.ceil((double) totalHits / pageSize);
+
+    return PagedResponse.<T>builder()
+        .content(content)
+        .pageNumber(pageNumber)
+        .pageSize(pageSize)
+        .totalElements(totalHits)
+        .totalPages(totalPages)
+        .isLastPage(pageNumber >= totalPages - 1)
+        .build();
+  }
+
+  private Throwable toSearchException(Throwable e) {
+    if (e instanceof SearchUnavailableException || e instanceof IllegalArgumentException) {
+      return e;
+    }
+    if (e instanceof TimeoutException) {
+      log.warn("Reactive search timed out after {} ms", timeoutMs);
+      return new SearchUnavailableException("Search timed out after " + timeoutMs + " ms", e);
+    }
+    log.error("Error in reactive product search: {}", e.getMessage(), e);
+    return new SearchUnavailableException("Failed to search products: " + e.getMessage(), e);
+  }
+}
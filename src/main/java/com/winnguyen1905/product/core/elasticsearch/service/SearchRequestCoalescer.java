@@ -0,0 +1,82 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.winnguyen1905.product.exception.SearchUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-flight for searches: while a search for a key is running, identical
+ * searches wait for its result instead of sending their own query. The first
+ * caller runs the search on its own thread; the key is released as soon as it
+ * completes, so results are never reused after the fact (that is the cache's
+ * job). Failures are rethrown to every waiter.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchRequestCoalescer {
+
+  private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+
+  @Value("${elasticsearch.search.coalescing.enabled:true}")
+  private boolean enabled;
+
+  @Value("${elasticsearch.search.coalescing.wait-timeout-ms:3000}")
+  private long waitTimeoutMs;
+
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String key, Supplier<T> search) {
+    if (!enabled) {
+      return search.get();
+    }
+
+    CompletableFuture<Object> ours = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(key, ours);
+    if (existing != null) {
+      meterRegistry.counter("search.coalesced").increment();
+      return (T) await(key, existing);
+    }
+
+    try {
+      T result = search.get();
+      ours.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      ours.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, ours);
+    }
+  }
+
+  private Object await(String key, CompletableFuture<Object> leader) {
+    try {
+      return leader.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new SearchUnavailableException("Failed to search products: " + e.getCause().getMessage(), e.getCause());
+    } catch (TimeoutException e) {
+      log.warn("Gave up waiting {} ms for in-flight search {}", waitTimeoutMs, key);
+      throw new SearchUnavailableException("Search timed out after " + waitTimeoutMs + " ms", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SearchUnavailableException("Search interrupted", e);
+    }
+  }
+}
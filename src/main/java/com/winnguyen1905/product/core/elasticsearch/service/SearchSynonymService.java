@@ -0,0 +1,137 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import com.winnguyen1905.product.core.elasticsearch.config.ProductIndexRouting;
+import com.winnguyen1905.product.exception.BadRequestException;
+import com.winnguyen1905.product.exception.BusinessLogicException;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.synonyms.SynonymRule;
+import co.elastic.clients.elasticsearch.synonyms.SynonymRuleRead;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Manages the product synonyms. Synonyms are applied only by the search
+ * analyzer, through an updateable synonym_graph filter backed by a synonyms
+ * set, so a new list takes effect after a search analyzer reload without
+ * reindexing or closing the index.
+ */
+@Slf4j
+@Service
+@Profile("!local")  // Exclude from local profile
+@RequiredArgsConstructor
+public class SearchSynonymService {
+
+  /** Must match synonyms_set in elasticsearch/product-settings.json */
+  public static final String SYNONYMS_SET = "product-synonyms";
+
+  private static final String DEFAULT_SYNONYMS = "elasticsearch/product-synonyms.txt";
+  private static final int MAX_RULES = 10000;
+  private static final List<String> SEARCH_CACHES = List.of("product-search", "product-facets");
+
+  private final ElasticsearchClient elasticsearchClient;
+  private final ProductIndexRouting productIndexRouting;
+  private final CacheManager cacheManager;
+
+  /**
+   * Create the synonyms set from the bundled defaults if it does not exist yet.
+   * Indices referencing a missing set cannot be created.
+   */
+  public void ensureSynonymsSet() throws IOException {
+    try {
+      elasticsearchClient.synonyms().getSynonym(g -> g.id(SYNONYMS_SET).size(1));
+    } catch (ElasticsearchException e) {
+      if (e.status() != 404) {
+        throw e;
+      }
+      List<String> defaults = parseRules(StreamUtils.copyToString(
+          new ClassPathResource(DEFAULT_SYNONYMS).getInputStream(), StandardCharsets.UTF_8));
+      putRules(defaults);
+      log.info("Created synonyms set '{}' with {} default rules", SYNONYMS_SET, defaults.size());
+    }
+  }
+
+  public List<String> getSynonyms() {
+    try {
+      return elasticsearchClient.synonyms().getSynonym(g -> g.id(SYNONYMS_SET).size(MAX_RULES))
+          .synonymsSet().stream()
+          .map(SynonymRuleRead::synonyms)
+          .toList();
+    } catch (IOException | ElasticsearchException e) {
+      log.error("Failed to read synonyms set '{}': {}", SYNONYMS_SET, e.getMessage());
+      throw new BusinessLogicException("Failed to read synonyms: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Replace the synonym rules, in Solr format (one rule per entry), and make
+   * every product index pick them up
+   */
+  public List<String> updateSynonyms(List<String> rules) {
+    List<String> cleaned = rules == null ? List.of() : rules.stream()
+        .filter(StringUtils::hasText)
+        .map(String::trim)
+        .distinct()
+        .toList();
+    if (cleaned.size() > MAX_RULES) {
+      throw new BadRequestException("At most " + MAX_RULES + " synonym rules are supported");
+    }
+
+    try {
+      putRules(cleaned);
+      log.info("Updated synonyms set '{}' with {} rules", SYNONYMS_SET, cleaned.size());
+    } catch (IOException | ElasticsearchException e) {
+      log.error("Failed to update synonyms set '{}': {}", SYNONYMS_SET, e.getMessage());
+      throw new BusinessLogicException("Failed to update synonyms: " + e.getMessage());
+    }
+
+    reloadSearchAnalyzers();
+    return cleaned;
+  }
+
+  /**
+   * Reload updateable search analyzers on every product index and drop cached
+   * search results, which were produced with the old analyzer
+   */
+  public void reloadSearchAnalyzers() {
+    String index = productIndexRouting.allRegions().getIndexName();
+    try {
+      var response = elasticsearchClient.indices().reloadSearchAnalyzers(r -> r.index(index));
+      log.info("Reloaded search analyzers on '{}' ({} shards)", index, response.shards().successful());
+    } catch (IOException | ElasticsearchException e) {
+      log.error("Failed to reload search analyzers on '{}': {}", index, e.getMessage());
+      throw new BusinessLogicException("Failed to reload search analyzers: " + e.getMessage());
+    }
+
+    SEARCH_CACHES.stream().map(cacheManager::getCache).filter(Objects::nonNull).forEach(Cache::clear);
+  }
+
+  private void putRules(List<String> rules) throws IOException {
+    List<SynonymRule> synonymRules = rules.stream()
+        .map(rule -> SynonymRule.of(r -> r.synonyms(rule)))
+        .toList();
+    elasticsearchClient.synonyms().putSynonym(p -> p.id(SYNONYMS_SET).synonymsSet(synonymRules));
+  }
+
+  private static List<String> parseRules(String text) {
+    return Arrays.stream(text.split("\\R"))
+        .map(String::trim)
+        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+        .toList();
+  }
+}
@@ -0,0 +1,258 @@
+package com.winnguyen1905.product.core.elasticsearch.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winnguyen1905.product.core.elasticsearch.document.ProductDocument;
+import com.winnguyen1905.product.core.elasticsearch.query.ProductSearchQuery;
+import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.service.ScheduledJobLock;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precomputes the top-K similar products for every indexed document and keeps
+ * their ids in Redis, so product pages read their neighbors with a single GET
+ * and one ids lookup instead of running a scored query per render. Neighbors
+ * are hydrated from the index on read, so a neighbor that was deleted,
+ * unpublished or repriced since the list was computed is dropped or shown
+ * current without recomputing the lists it appears in.
+ *
+ * Neighbors are recomputed for documents marked dirty by {@link ProductSyncService}
+ * on a short interval, and fully rebuilt on a nightly schedule by one instance,
+ * on its own thread so the shared scheduler keeps running the other jobs.
+ */
+@Slf4j
+@Service
+@Profile("!local")  // Exclude from local profile
+@RequiredArgsConstructor
+public class SimilarProductsService {
+
+  private static final String NEIGHBORS_KEY_PREFIX = "similar:neighbors:";
+  private static final String DIRTY_SET_KEY = "similar:products:dirty";
+  private static final String REBUILD_JOB = "similar-products-rebuild";
+  private static final TypeReference<List<String>> NEIGHBORS_TYPE = new TypeReference<>() {
+  };
+
+  private final ElasticsearchOperations elasticsearchOperations;
+  private final ProductSearchQuery productSearchQuery;
+  private final ProductDocumentMapper productDocumentMapper;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ObjectMapper objectMapper;
+  private final ScheduledJobLock scheduledJobLock;
+  private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(
+      runnable -> new Thread(runnable, "similar-products-rebuild"));
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+  @Value("${elasticsearch.search.similar.top-k:12}")
+  private int topK;
+
+  @Value("${elasticsearch.search.similar.ttl-hours:48}")
+  private long ttlHours;
+
+  @Value("${elasticsearch.search.similar.empty-ttl-minutes:10}")
+  private long emptyTtlMinutes;
+
+  @Value("${elasticsearch.search.similar.dirty-batch-size:200}")
+  private int dirtyBatchSize;
+
+  @Value("${elasticsearch.search.similar.rebuild-lock-hours:6}")
+  private long rebuildLockHours;
+
+  @PreDestroy
+  void shutdown() {
+    rebuildExecutor.shutdownNow();
+  }
+
+  /**
+   * Read precomputed neighbors. Falls back to computing them once on a miss so
+   * a freshly indexed product is served on its first page view.
+   */
+  public List<ProductVariantReviewVm> getSimilarProducts(String documentId, int limit) {
+    List<String> neighborIds = readNeighbors(documentId);
+    if (neighborIds == null) {
+      log.debug("No precomputed neighbors for {}, computing on demand", documentId);
+      neighborIds = refreshNeighbors(documentId);
+    }
+    if (neighborIds.isEmpty()) {
+      return List.of();
+    }
+
+    Map<String, ProductDocument> visible = productSearchQuery.findVisibleDocuments(neighborIds).stream()
+        .collect(Collectors.toMap(ProductDocument::getId, Function.identity(), (first, second) -> first));
+    return neighborIds.stream()
+        .map(visible::get)
+        .filter(Objects::nonNull)
+        .map(productDocumentMapper::toProductVariantReviewVm)
+        .filter(Objects::nonNull)
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Queue a document for neighbor recomputation on the next refresh cycle
+   */
+  public void markDirty(String documentId) {
+    try {
+      stringRedisTemplate.opsForSet().add(DIRTY_SET_KEY, documentId);
+    } catch (Exception e) {
+      log.warn("Failed to mark {} for similar-products refresh: {}", documentId, e.getMessage());
+    }
+  }
+
+  /**
+   * Recompute and store the neighbor ids of a single document. An unknown
+   * document is stored as having none for a short while, so repeated requests
+   * for it do not each query the index.
+   */
+  public List<String> refreshNeighbors(String documentId) {
+    ProductDocument source = productSearchQuery.findDocument(documentId);
+    if (source == null) {
+      writeNeighbors(documentId, List.of(), Duration.ofMinutes(emptyTtlMinutes));
+      return List.of();
+    }
+
+    List<String> neighborIds = productSearchQuery.executeSimilarProductsSearch(source, topK)
+        .getSearchHits().stream()
+        .map(SearchHit::getId)
+        .filter(Objects::nonNull)
+        .toList();
+
+    writeNeighbors(documentId, neighborIds,
+        neighborIds.isEmpty() ? Duration.ofMinutes(emptyTtlMinutes) : Duration.ofHours(ttlHours));
+    return neighborIds;
+  }
+
+  @Scheduled(fixedDelayString = "${elasticsearch.search.similar.refresh-interval-ms:60000}")
+  public void refreshDirtyProducts() {
+    try {
+      List<String> dirty = stringRedisTemplate.opsForSet().pop(DIRTY_SET_KEY, dirtyBatchSize);
+      if (dirty == null || dirty.isEmpty()) {
+        return;
+      }
+
+      log.info("Refreshing similar products for {} changed documents", dirty.size());
+      for (String documentId : dirty) {
+        refreshQuietly(documentId);
+      }
+    } catch (Exception e) {
+      log.warn("Similar-products refresh cycle failed: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Start the nightly rebuild on the rebuild thread, on the one instance that
+   * takes the rebuild lock. The lock is held until the rebuild finishes.
+   */
+  @Scheduled(cron = "${elasticsearch.search.similar.rebuild-cron:0 0 3 * * *}")
+  public void scheduleRebuild() {
+    if (!rebuilding.compareAndSet(false, true)) {
+      log.info("Similar-products rebuild still running, skipping this run");
+      return;
+    }
+    String token = scheduledJobLock.tryLock(REBUILD_JOB, Duration.ofHours(rebuildLockHours));
+    if (token == null) {
+      rebuilding.set(false);
+      return;
+    }
+
+    try {
+      rebuildExecutor.execute(() -> {
+        try {
+          rebuildAll();
+        } finally {
+          scheduledJobLock.unlock(REBUILD_JOB, token);
+          rebuilding.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      scheduledJobLock.unlock(REBUILD_JOB, token);
+      rebuilding.set(false);
+    }
+  }
+
+  public void rebuildAll() {
+    log.info("Starting full similar-products rebuild");
+
+    NativeQuery allIds = NativeQuery.builder()
+        .withQuery(Query.of(q -> q.matchAll(m -> m)))
+        .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("id").build())
+        .withPageable(Pageable.ofSize(500))
+        .build();
+
+    int processed = 0;
+    try (SearchHitsIterator<ProductDocument> hits = elasticsearchOperations.searchForStream(allIds,
+        ProductDocument.class)) {
+      while (hits.hasNext()) {
+        refreshQuietly(hits.next().getId());
+        processed++;
+        if (processed % 1000 == 0) {
+          log.info("Rebuilt similar products for {} documents", processed);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Similar-products rebuild failed after {} documents: {}", processed, e.getMessage(), e);
+      return;
+    }
+
+    log.info("Completed similar-products rebuild for {} documents", processed);
+  }
+
+  private void refreshQuietly(String documentId) {
+    try {
+      refreshNeighbors(documentId);
+    } catch (Exception e) {
+      log.warn("Failed to refresh similar products for {}: {}", documentId, e.getMessage());
+      markDirty(documentId);
+    }
+  }
+
+  private List<String> readNeighbors(String documentId) {
+    try {
+      String json = stringRedisTemplate.opsForValue().get(neighborsKey(documentId));
+      return json != null ? objectMapper.readValue(json, NEIGHBORS_TYPE) : null;
+    } catch (Exception e) {
+      log.warn("Failed to read similar products for {}: {}", documentId, e.getMessage());
+      return null;
+    }
+  }
+
+  private void writeNeighbors(String documentId, List<String> neighborIds, Duration ttl) {
+    try {
+      stringRedisTemplate.opsForValue().set(neighborsKey(documentId),
+          objectMapper.writeValueAsString(new ArrayList<>(neighborIds)), ttl);
+    } catch (Exception e) {
+      log.warn("Failed to store similar products for {}: {}", documentId, e.getMessage());
+    }
+  }
+
+  private String neighborsKey(String documentId) {
+    return NEIGHBORS_KEY_PREFIX + documentId;
+  }
+}
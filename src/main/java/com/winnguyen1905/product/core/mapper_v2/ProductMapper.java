@@ -3,6 +3,7 @@ package com.winnguyen1905.product.core.mapper_v2;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.winnguyen1905.product.common.constant.ProductStatus;
 import com.winnguyen1905.product.core.model.response.ProductVariantDetailResponse;
+import com.winnguyen1905.product.core.model.response.ProductVariantSnapshot;
 import com.winnguyen1905.product.core.model.request.AddProductRequest;
 import com.winnguyen1905.product.core.model.request.ProductVariantDto;
 import com.winnguyen1905.product.core.model.request.UpdateProductRequest;
@@ -20,6 +21,7 @@ import com.winnguyen1905.product.core.model.request.CreateProductVariantRequest;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -223,6 +225,47 @@ public class ProductMapper {
     return new ProductVariantByShopVm(shopProductVariants);
   }
 
+  public static ProductVariantSnapshot toProductVariantSnapshot(EProductVariant productVariant) {
+    EProduct product = productVariant.getProduct();
+    return ProductVariantSnapshot.builder()
+        .id(productVariant.getId())
+        .productId(product != null ? product.getId() : null)
+        .shopId(product != null ? product.getShopId() : null)
+        .sku(productVariant.getSku())
+        .price(productVariant.getPrice())
+        .features(productVariant.getFeatures())
+        .active(!Boolean.TRUE.equals(productVariant.getIsDeleted()))
+        .published(product != null && Boolean.TRUE.equals(product.getIsPublished()))
+        .build();
+  }
+
+  public static ProductVariantReviewVm toProductVariantReview(ProductVariantSnapshot snapshot) {
+    return ProductVariantReviewVm.builder()
+        .id(snapshot.id())
+        .sku(snapshot.sku())
+        .price(snapshot.price() != null ? snapshot.price() : 0.0)
+        .productId(snapshot.productId())
+        .features(snapshot.features())
+        .stock(0) // Default stock to 0, should be set from inventory if available
+        .build();
+  }
+
+  public static ProductVariantByShopVm toProductVariantByShopVmFromSnapshots(
+      Collection<ProductVariantSnapshot> snapshots) {
+    List<ProductVariantByShopVm.ShopProductVariant> shopProductVariants = snapshots.stream()
+        .collect(Collectors.groupingBy(ProductVariantSnapshot::shopId))
+        .entrySet().stream()
+        .map(entry -> ProductVariantByShopVm.ShopProductVariant.builder()
+            .shopId(entry.getKey())
+            .productVariantReviews(entry.getValue().stream()
+                .map(ProductMapper::toProductVariantReview)
+                .collect(Collectors.toList()))
+            .build())
+        .collect(Collectors.toList());
+
+    return new ProductVariantByShopVm(shopProductVariants);
+  }
+
   /**
    * Convert legacy AddProductRequest to modern CreateProductRequest
    * @param addRequest The legacy request
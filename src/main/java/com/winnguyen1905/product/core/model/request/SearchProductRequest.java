@@ -2,6 +2,7 @@ package com.winnguyen1905.product.core.model.request;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -74,6 +75,45 @@ public record SearchProductRequest(
     return includeGlobalProducts != null ? includeGlobalProducts : true;
   }
 
+  /**
+   * Cache key covering only what narrows the result set. Paging and sorting are
+   * left out so every page of the same search shares one facet entry.
+   */
+  public String facetFingerprint() {
+    String filterKey = filters == null ? "" : filters.stream()
+        .map(filter -> filter.field() + "=" + (filter.values() == null ? "" : filter.values().stream()
+            .map(String::toLowerCase)
+            .sorted()
+            .collect(Collectors.joining(","))))
+        .sorted()
+        .collect(Collectors.joining(";"));
+
+    return String.join("|",
+        Objects.toString(getKeyword() != null ? getKeyword().toLowerCase() : null),
+        filterKey,
+        Objects.toString(region),
+        Objects.toString(productType),
+        Objects.toString(status),
+        Objects.toString(isPublished));
+  }
+
+  /**
+   * Normalized key for a full hit search: the facet fingerprint plus sorting,
+   * paging and partition-first options. Requests differing only in keyword case,
+   * whitespace or filter order share a key.
+   */
+  public String searchFingerprint() {
+    String sortKey = sorts == null ? "" : sorts.stream()
+        .map(sort -> sort.field() + ":" + (sort.order() != null ? sort.order().toLowerCase() : ""))
+        .collect(Collectors.joining(","));
+
+    return String.join("|",
+        facetFingerprint(),
+        sortKey,
+        getPage().getPageNumber() + "x" + getPage().getPageSize(),
+        isPartitionFirstEnabled() + ":" + getPartitionFirstThreshold() + ":" + getMaxResultsFromOtherPartitions());
+  }
+
   /**
    * Get pagination with defaults
    */
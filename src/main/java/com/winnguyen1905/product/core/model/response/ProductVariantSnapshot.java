@@ -0,0 +1,22 @@
+package com.winnguyen1905.product.core.model.response;
+
+import java.util.UUID;
+
+import lombok.Builder;
+
+/**
+ * Cached, entity-free view of a product variant with the product fields the
+ * multi-item paths need. Stock is deliberately left out; it changes too often
+ * to cache and is read from inventory per request.
+ */
+@Builder
+public record ProductVariantSnapshot(
+    UUID id,
+    UUID productId,
+    UUID shopId,
+    String sku,
+    Double price,
+    Object features,
+    boolean active,
+    boolean published) {
+}
@@ -0,0 +1,27 @@
+package com.winnguyen1905.product.core.model.viewmodel;
+
+import java.util.List;
+import java.util.Map;
+
+import com.winnguyen1905.product.core.model.request.AbstractModel;
+
+import lombok.Builder;
+
+/**
+ * Facet counts for a search, independent of the page being shown
+ */
+@Builder
+public record SearchFacetsVm(
+    long totalHits,
+    List<FacetBucket> brands,
+    List<FacetBucket> categories,
+    List<FacetBucket> priceRanges,
+    Map<String, List<FacetBucket>> attributes) implements AbstractModel {
+
+  @Builder
+  public static record FacetBucket(
+      String key,
+      String label,
+      long count) implements AbstractModel {
+  }
+}
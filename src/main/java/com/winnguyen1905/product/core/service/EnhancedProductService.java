@@ -12,6 +12,7 @@ import com.winnguyen1905.product.core.model.request.SearchProductRequest;
 import com.winnguyen1905.product.core.model.request.UpdateProductRequest;
 import com.winnguyen1905.product.core.model.response.ProductResponse;
 import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
+import com.winnguyen1905.product.secure.RegionPartition;
 import com.winnguyen1905.product.secure.TAccountRequest;
 
 /**
@@ -159,6 +160,11 @@ public interface EnhancedProductService {
      */
     PagedResponse<ProductResponse> getPopularProducts(Long minPurchases, Pageable pageable);
 
+    /**
+     * Lấy sản phẩm hot theo region (và category) từ bảng xếp hạng Redis
+     */
+    PagedResponse<ProductResponse> getPopularProducts(RegionPartition region, UUID categoryId, Pageable pageable);
+
     /**
      * Lấy sản phẩm liên quan
      */
@@ -10,8 +10,12 @@ import com.winnguyen1905.product.core.service.AdminProductService;
 import com.winnguyen1905.product.exception.ResourceNotFoundException;
 import com.winnguyen1905.product.persistance.entity.EInventory;
 import com.winnguyen1905.product.persistance.entity.EProduct;
+import com.winnguyen1905.product.persistance.entity.EProductVariant;
 import com.winnguyen1905.product.persistance.repository.InventoryRepository;
 import com.winnguyen1905.product.persistance.repository.ProductRepository;
+import com.winnguyen1905.product.service.CacheStatisticsService;
+import com.winnguyen1905.product.service.ProductSnapshotService;
+import com.winnguyen1905.product.service.VariantSnapshotService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +32,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +46,9 @@ public class AdminProductServiceImpl implements AdminProductService {
   private final InventoryRepository inventoryRepository;
   private final ProductRepository productRepository;
   private final CacheManager cacheManager;
+  private final CacheStatisticsService cacheStatisticsService;
+  private final VariantSnapshotService variantSnapshotService;
+  private final ProductSnapshotService productSnapshotService;
 
   @Override
   @Transactional(readOnly = true)
@@ -112,8 +118,9 @@ public class AdminProductServiceImpl implements AdminProductService {
     product.setUpdatedDate(Instant.now());
     productRepository.save(product);
     
-    // Evict cache for this product
+    // Evict after commit so a concurrent read cannot cache the old status again
     evictProductCache(productId);
+    variantSnapshotService.evict(product.getVariants().stream().map(EProductVariant::getId).toList());
   }
 
   @Override
@@ -133,24 +140,8 @@ public class AdminProductServiceImpl implements AdminProductService {
   public Map<String, Object> getCacheStatistics() {
     log.info("Retrieving cache statistics");
     Map<String, Object> stats = new HashMap<>();
-    
-    if (cacheManager != null) {
-      Collection<String> cacheNames = cacheManager.getCacheNames();
-      stats.put("cacheNames", cacheNames);
-      
-      Map<String, Integer> cacheStats = new HashMap<>();
-      cacheNames.forEach(cacheName -> {
-        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-          // Spring doesn't provide built-in cache statistics, so this is approximate
-          cacheStats.put(cacheName, cache.toString().length());
-        }
-      });
-      stats.put("approximateSize", cacheStats);
-    } else {
-      stats.put("status", "Cache manager not available");
-    }
-    
+    stats.put("cacheNames", cacheManager.getCacheNames());
+    stats.put("caches", cacheStatisticsService.report());
     return stats;
   }
 
@@ -206,6 +197,6 @@ public class AdminProductServiceImpl implements AdminProductService {
   @CacheEvict(value = {"products", "product"}, key = "#productId")
   private void evictProductCache(UUID productId) {
     log.info("Evicting cache for product: {}", productId);
-    // Cache eviction is handled by the annotation
+    productSnapshotService.evict(productId);
   }
 } 
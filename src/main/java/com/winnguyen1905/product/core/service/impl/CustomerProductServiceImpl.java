@@ -1,15 +1,22 @@
 package com.winnguyen1905.product.core.service.impl;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 
 import org.springframework.stereotype.Service;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import com.winnguyen1905.product.config.ProductEngagementEvent;
+import com.winnguyen1905.product.config.RegionalFallbackConfiguration;
+import com.winnguyen1905.product.core.elasticsearch.service.LocalProductSearchIndex;
 import com.winnguyen1905.product.core.elasticsearch.service.ProductSearchService;
 import com.winnguyen1905.product.core.mapper_v2.ProductMapper;
 import com.winnguyen1905.product.core.model.request.InventoryConfirmationRequest;
@@ -18,6 +25,7 @@ import com.winnguyen1905.product.core.model.request.ReserveInventoryRequest;
 import com.winnguyen1905.product.core.model.request.SearchProductRequest;
 import com.winnguyen1905.product.core.model.response.InventoryConfirmationResponse;
 import com.winnguyen1905.product.core.model.response.ProductAvailabilityResponse;
+import com.winnguyen1905.product.core.model.response.ProductVariantSnapshot;
 import com.winnguyen1905.product.core.model.response.ReserveInventoryResponse;
 import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
 import com.winnguyen1905.product.core.model.viewmodel.ProductDetailVm;
@@ -25,18 +33,24 @@ import com.winnguyen1905.product.core.model.viewmodel.ProductVariantByShopVm;
 import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
 import com.winnguyen1905.product.core.service.CustomerProductService;
 import com.winnguyen1905.product.core.service.InventoryService;
+import com.winnguyen1905.product.exception.BaseException;
+import com.winnguyen1905.product.exception.BusinessLogicException;
+import com.winnguyen1905.product.exception.SearchUnavailableException;
 import com.winnguyen1905.product.persistance.entity.EInventory;
 import com.winnguyen1905.product.persistance.entity.EProduct;
-import com.winnguyen1905.product.persistance.entity.EProductVariant;
 import com.winnguyen1905.product.persistance.repository.InventoryRepository;
-import java.util.Optional;
 import java.util.Set;
 
 import com.winnguyen1905.product.persistance.repository.ProductRepository;
 import com.winnguyen1905.product.persistance.repository.ProductVariantRepository;
+import com.winnguyen1905.product.service.NegativeCacheService;
+import com.winnguyen1905.product.service.VariantSnapshotService;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.winnguyen1905.product.core.model.response.ProductVariantDetailResponse;
@@ -47,17 +61,36 @@ import com.winnguyen1905.product.core.model.viewmodel.ProductImageVm;
 @RequiredArgsConstructor
 public class CustomerProductServiceImpl implements CustomerProductService {
 
+
   private final ProductRepository productRepository;
   private final ProductVariantRepository productVariantRepository;
   private final ProductSearchService productSearchService;
   private final InventoryRepository inventoryRepository;
   private final InventoryService inventoryService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
+  private final LocalProductSearchIndex localProductSearchIndex;
+  private final VariantSnapshotService variantSnapshotService;
+  private final NegativeCacheService negativeCacheService;
 
   @Override
   public ProductDetailVm getProductDetail(UUID id) {
+    if (negativeCacheService.isKnownAbsent(NegativeCacheService.Kind.PRODUCT, id)) {
+      throw new EntityNotFoundException("Product not found with id: " + id);
+    }
     return productRepository.findByIdAndIsPublishedTrue(id)
-        .map(ProductMapper::toProductDetail)
-        .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+        .map(product -> {
+          // The view event also feeds ProductViewCounter, which batches the viewCount writes
+          eventPublisher.publishEvent(ProductEngagementEvent.view(product));
+          return ProductMapper.toProductDetail(product);
+        })
+        .orElseThrow(() -> {
+          // Unpublished products exist and may be published any moment; only missing ids get a tombstone
+          if (!productRepository.existsById(id)) {
+            negativeCacheService.markAbsent(NegativeCacheService.Kind.PRODUCT, id);
+          }
+          return new EntityNotFoundException("Product not found with id: " + id);
+        });
   }
 
   @Override
@@ -65,29 +98,41 @@ public class CustomerProductServiceImpl implements CustomerProductService {
     log.info("Searching products with request: {}", searchProductRequest);
     
     try {
-      PagedResponse<ProductVariantReviewVm> response = productSearchService.searchProducts(searchProductRequest);
+      PagedResponse<ProductVariantReviewVm> response = circuitBreakerRegistry
+          .circuitBreaker(RegionalFallbackConfiguration.SEARCH_CIRCUIT_BREAKER)
+          .executeSupplier(() -> productSearchService.searchProducts(searchProductRequest));
       log.info("Found {} products for search", response.getTotalElements());
       return response;
+    } catch (CallNotPermittedException e) {
+      log.debug("Search circuit open, serving from local index");
+    } catch (SearchUnavailableException e) {
+      log.warn("Search unavailable, serving from local index: {}", e.getMessage());
+    } catch (BaseException | BusinessLogicException | ValidationException | IllegalArgumentException e) {
+      // The request itself is wrong; the local index would not answer it any better
+      throw e;
     } catch (Exception e) {
       log.error("Error searching products: {}", e.getMessage(), e);
-      // Return empty response on error
-      return PagedResponse.<ProductVariantReviewVm>builder()
-          .content(List.of())
-          .pageNumber(searchProductRequest.getPage().pageNum())
-          .pageSize(searchProductRequest.getPage().pageSize())
-          .totalElements(0)
-          .totalPages(0)
-          .isLastPage(true)
-          .build();
     }
+
+    if (localProductSearchIndex.isReady()) {
+      return localProductSearchIndex.search(searchProductRequest);
+    }
+
+    // Return empty response when no fallback is available
+    return PagedResponse.<ProductVariantReviewVm>builder()
+        .content(List.of())
+        .pageNumber(searchProductRequest.getPage().pageNum())
+        .pageSize(searchProductRequest.getPage().pageSize())
+        .totalElements(0)
+        .totalPages(0)
+        .isLastPage(true)
+        .build();
   }
 
   @Override
   public ProductVariantByShopVm getProductVariantDetails(Set<UUID> productVariantIds) {
-    List<EProductVariant> productVariants = this.productVariantRepository
-        .findAllByIdIn(productVariantIds);
-
-    return ProductMapper.toProductVariantByShopVm(productVariants);
+    return ProductMapper.toProductVariantByShopVmFromSnapshots(
+        variantSnapshotService.getVariants(productVariantIds).values());
   }
 
   @Override
@@ -107,41 +152,52 @@ public class CustomerProductServiceImpl implements CustomerProductService {
   public ProductAvailabilityResponse checkProductAvailability(ProductAvailabilityRequest productAvailabilityRequest) {
     log.info("Checking product availability for request: {}", productAvailabilityRequest);
 
+    // One batched cache lookup for the variants and one query for their stock, whatever the item count
+    Map<UUID, ProductVariantSnapshot> variants = variantSnapshotService.getVariants(
+        productAvailabilityRequest.getItems().stream()
+            .map(ProductAvailabilityRequest.Item::getVariantId)
+            .collect(Collectors.toSet()));
+    Set<String> skus = variants.values().stream()
+        .map(ProductVariantSnapshot::sku)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    Map<String, EInventory> inventoriesBySku = skus.isEmpty() ? Map.of()
+        : inventoryRepository.findAllBySkuIn(skus).stream()
+            .collect(Collectors.toMap(EInventory::getSku, Function.identity(), (a, b) -> a));
+
     List<ProductAvailabilityResponse.Item> availabilityItems = productAvailabilityRequest.getItems().stream()
         .<ProductAvailabilityResponse.Item>map(requestItem -> {
           try {
             // Find the product variant by ID
-            var variant = productVariantRepository.findById(requestItem.getVariantId())
-                .orElseThrow(() -> new EntityNotFoundException(
-                    "Product variant not found with id: " + requestItem.getVariantId()));
+            ProductVariantSnapshot variant = variants.get(requestItem.getVariantId());
+            if (variant == null) {
+              throw new EntityNotFoundException("Product variant not found with id: " + requestItem.getVariantId());
+            }
 
             // Get the inventory for this variant using SKU
-            var inventoryOpt = variant.getSku() != null ? inventoryRepository.findBySku(variant.getSku())
-                : Optional.<EInventory>empty();
+            EInventory inventory = variant.sku() != null ? inventoriesBySku.get(variant.sku()) : null;
 
             // Check if the variant is active and published
-            boolean isActive = variant.getIsDeleted() == null || !variant.getIsDeleted();
-            boolean isPublished = variant.getProduct() != null && 
-                                Boolean.TRUE.equals(variant.getProduct().getIsPublished());
+            boolean isActive = variant.active();
+            boolean isPublished = variant.published();
 
             // Check inventory availability if inventory exists
             boolean isInStock = false;
             int availableQuantity = 0;
 
-            if (inventoryOpt.isPresent()) {
-              EInventory inventory = inventoryOpt.get();
+            if (inventory != null) {
               availableQuantity = inventory.getQuantityAvailable() != null ? inventory.getQuantityAvailable() : 0;
               isInStock = availableQuantity >= requestItem.getQuantity();
             }
 
             // Build the response item
             return ProductAvailabilityResponse.Item.builder()
-                .productId(variant.getProduct() != null ? variant.getProduct().getId() : null)
-                .variantId(variant.getId())
+                .productId(variant.productId())
+                .variantId(variant.id())
                 .available(isActive && isPublished && isInStock)
                 .isActive(isActive && isPublished)
                 .stockQuantity(availableQuantity)
-                .currentPrice(variant.getPrice() != null ? variant.getPrice().doubleValue() : 0.0)
+                .currentPrice(variant.price() != null ? variant.price().doubleValue() : 0.0)
                 .build();
 
           } catch (Exception e) {
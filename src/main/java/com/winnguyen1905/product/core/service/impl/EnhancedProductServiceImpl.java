@@ -1,16 +1,27 @@
 package com.winnguyen1905.product.core.service.impl;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import com.winnguyen1905.product.common.constant.ProductStatus;
+import com.winnguyen1905.product.config.ProductDeletedEvent;
+import com.winnguyen1905.product.config.ProductTextSearchInitializer;
 import com.winnguyen1905.product.core.mapper_v2.EnhancedProductMapper;
 import com.winnguyen1905.product.core.model.request.CreateProductRequest;
 import com.winnguyen1905.product.core.model.request.CreateProductVariantRequest;
@@ -29,7 +40,15 @@ import com.winnguyen1905.product.persistance.entity.EProductVariant;
 import com.winnguyen1905.product.persistance.repository.BrandRepository;
 import com.winnguyen1905.product.persistance.repository.CategoryRepository;
 import com.winnguyen1905.product.persistance.repository.EnhancedProductRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
 import com.winnguyen1905.product.secure.TAccountRequest;
+import com.winnguyen1905.product.service.CacheWarmupService;
+import com.winnguyen1905.product.service.NegativeCacheService;
+import com.winnguyen1905.product.service.ProductPopularityService;
+import com.winnguyen1905.product.service.ProductSnapshotService;
+import com.winnguyen1905.product.service.ProductViewCounter;
+import com.winnguyen1905.product.service.VariantSnapshotService;
+import com.winnguyen1905.product.util.CommonUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -50,11 +69,19 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
   private final BrandRepository brandRepository;
   private final CategoryRepository categoryRepository;
   private final VendorProductService vendorProductService;
+  private final ProductPopularityService productPopularityService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProductTextSearchInitializer productTextSearchInitializer;
+  private final ProductSnapshotService productSnapshotService;
+  private final CacheWarmupService cacheWarmupService;
+  private final VariantSnapshotService variantSnapshotService;
+  private final NegativeCacheService negativeCacheService;
+  private final ProductViewCounter productViewCounter;
 
   // ================== CRUD OPERATIONS ==================
 
   @Override
-  // @Transactional
+  @Transactional
   public ProductResponse createProduct(CreateProductRequest request, TAccountRequest accountRequest) {
     log.info("Creating product: {} for vendor: {}", request.name(), accountRequest.id());
 
@@ -102,6 +129,7 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
     // Index in Elasticsearch
     vendorProductService.persistProductVariants(savedProduct);
+    clearNotFoundTombstones(savedProduct);
 
     log.info("Product created successfully: {}", savedProduct.getId());
 
@@ -109,30 +137,26 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
   }
 
   @Override
-  @Cacheable(value = "products", key = "#productId", unless = "#result == null")
   public ProductResponse getProduct(UUID productId, TAccountRequest accountRequest) {
     log.debug("Getting product: {} for account: {}", productId, accountRequest.id());
 
-    EProduct product = productRepository.findById(productId)
-        .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
-
-    // Check access permissions
-    if (!hasProductAccess(productId, accountRequest)) {
+    ProductResponse product = productSnapshotService.getProduct(productId);
+    if (!hasProductAccess(product, accountRequest)) {
       throw new BusinessLogicException("No access to product: " + productId);
     }
 
-    return EnhancedProductMapper.toResponse(product);
+    return product;
   }
 
   @Override
-  @Cacheable(value = "public-products", key = "#productId", unless = "#result == null")
   public ProductResponse getPublicProduct(UUID productId) {
     log.debug("Getting public product: {}", productId);
 
-    EProduct product = productRepository.findByIdAndIsPublishedTrue(productId)
-        .orElseThrow(() -> new ResourceNotFoundException("Published product not found: " + productId));
-
-    return EnhancedProductMapper.toResponse(product);
+    ProductResponse product = productSnapshotService.getProduct(productId);
+    if (!Boolean.TRUE.equals(product.isPublished())) {
+      throw new ResourceNotFoundException("Published product not found: " + productId);
+    }
+    return product;
   }
 
   @Override
@@ -181,6 +205,8 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
     // Update Elasticsearch index
     vendorProductService.persistProductVariants(savedProduct);
+    evictSnapshots(savedProduct);
+    clearNotFoundTombstones(savedProduct);
 
     log.info("Product updated successfully: {}", savedProduct.getId());
 
@@ -206,8 +232,9 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
     product.setUpdatedBy(accountRequest.id().toString());
 
     productRepository.save(product);
-
-    // TODO: Remove from Elasticsearch index
+    productPopularityService.removeProduct(productId);
+    evictSnapshots(product);
+    eventPublisher.publishEvent(ProductDeletedEvent.of(product));
 
     log.info("Product deleted successfully: {}", productId);
   }
@@ -233,6 +260,8 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
     // Re-index in Elasticsearch
     vendorProductService.persistProductVariants(savedProduct);
+    evictSnapshots(savedProduct);
+    clearNotFoundTombstones(savedProduct);
 
     log.info("Product restored successfully: {}", productId);
 
@@ -291,15 +320,7 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
   public PagedResponse<ProductResponse> searchProducts(SearchProductRequest request, TAccountRequest accountRequest) {
     log.debug("Searching products with request: {}", request);
 
-    // TODO: Implement Elasticsearch search
-    // This is a placeholder implementation using database search
-
-    Page<EProduct> productPage = productRepository.searchProducts(
-        request.getKeyword(),
-        null, // ProductType from request
-        accountRequest.id(), // Filter by vendor if not admin
-        null, // Region from request
-        request.getPage());
+    Page<EProduct> productPage = searchProductPage(request.getKeyword(), accountRequest.id(), request.getPage());
 
     List<ProductResponse> products = EnhancedProductMapper.toResponseList(productPage.getContent());
 
@@ -312,6 +333,35 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
         .build();
   }
 
+  /**
+   * Use the ranked full-text or trigram query when the database supports it, and
+   * the LIKE query otherwise. Ranked queries order by relevance, so the page's
+   * sort is dropped for them.
+   */
+  private Page<EProduct> searchProductPage(String keyword, UUID vendorId, Pageable pageable) {
+    if (StringUtils.hasText(keyword)) {
+      Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+      if (productTextSearchInitializer.isFullTextAvailable()) {
+        Page<EProduct> ranked = productRepository.searchProductsFullText(keyword, null, vendorId, null, unsorted);
+        // Whole-word matching misses partial words, which the trigram index still finds
+        if (ranked.hasContent() || !productTextSearchInitializer.isTrigramAvailable()) {
+          return ranked;
+        }
+      }
+      if (productTextSearchInitializer.isTrigramAvailable()) {
+        return productRepository.searchProductsByTrigram(keyword, CommonUtils.containsPattern(keyword), null, vendorId,
+            null, unsorted);
+      }
+    }
+
+    return productRepository.searchProducts(
+        keyword,
+        null, // ProductType from request
+        vendorId, // Filter by vendor if not admin
+        null, // Region from request
+        pageable);
+  }
+
   // ================== VALIDATION & BUSINESS LOGIC ==================
 
   @Override
@@ -320,19 +370,29 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
       return true;
     }
 
-    EProduct product = productRepository.findById(productId).orElse(null);
-    if (product == null) {
+    // The cached snapshot carries everything the rules read
+    ProductResponse product;
+    try {
+      product = productSnapshotService.getProduct(productId);
+    } catch (ResourceNotFoundException e) {
       return false;
     }
+    return hasProductAccess(product, accountRequest);
+  }
+
+  private boolean hasProductAccess(ProductResponse product, TAccountRequest accountRequest) {
+    if (accountRequest.isAdmin()) {
+      return true;
+    }
 
     // Vendor can access their own products
-    if (accountRequest.id().equals(product.getVendorId())) {
+    if (accountRequest.id().equals(product.vendorId())) {
       return true;
     }
 
     // Public access to published products
-    return Boolean.TRUE.equals(product.getIsPublished()) &&
-        product.getStatus() == ProductStatus.ACTIVE;
+    return Boolean.TRUE.equals(product.isPublished()) &&
+        product.status() == ProductStatus.ACTIVE;
   }
 
   @Override
@@ -394,8 +454,15 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
   @Override
   public ProductResponse getProductBySlug(String slug, UUID vendorId) {
+    String slugKey = NegativeCacheService.slugKey(slug, vendorId);
+    if (negativeCacheService.isKnownAbsent(NegativeCacheService.Kind.SLUG, slugKey)) {
+      throw new ResourceNotFoundException("Product not found with slug: " + slug);
+    }
     EProduct product = productRepository.findBySlugAndVendor(slug, vendorId)
-        .orElseThrow(() -> new ResourceNotFoundException("Product not found with slug: " + slug));
+        .orElseThrow(() -> {
+          negativeCacheService.markAbsent(NegativeCacheService.Kind.SLUG, slugKey);
+          return new ResourceNotFoundException("Product not found with slug: " + slug);
+        });
 
     return EnhancedProductMapper.toResponse(product);
   }
@@ -408,6 +475,24 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
     log.debug("Evicting cache for product: {}", productId);
   }
 
+  // Both evictions wait for the commit, so a concurrent read cannot cache the old rows again
+  private void evictSnapshots(EProduct product) {
+    productSnapshotService.evict(product.getId());
+    variantSnapshotService.evict(product.getVariants().stream().map(EProductVariant::getId).toList());
+  }
+
+  // Lookups that missed before this write must not keep answering "not found" until their TTL;
+  // the clear waits for the commit. SKUs are only created or renamed here, so stock writes skip it
+  private void clearNotFoundTombstones(EProduct product) {
+    negativeCacheService.clear(NegativeCacheService.Kind.PRODUCT, product.getId());
+    negativeCacheService.clear(NegativeCacheService.Kind.SLUG,
+        NegativeCacheService.slugKey(product.getSlug(), product.getVendorId()));
+    Set<String> skus = new HashSet<>();
+    product.getVariants().forEach(variant -> skus.add(variant.getSku()));
+    product.getInventories().forEach(inventory -> skus.add(inventory.getSku()));
+    negativeCacheService.clear(NegativeCacheService.Kind.SKU, skus);
+  }
+
   @Override
   @CacheEvict(value = "vendor-products", allEntries = true)
   public void evictVendorProductsCache(UUID vendorId) {
@@ -417,7 +502,7 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
   @Override
   public void warmUpProductCache() {
     log.info("Warming up product cache");
-    // TODO: Implement cache warm-up logic
+    cacheWarmupService.warmUpAsync();
   }
 
   // ================== NOT YET IMPLEMENTED ==================
@@ -506,8 +591,53 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
   @Override
   public PagedResponse<ProductResponse> getPopularProducts(Long minPurchases, Pageable pageable) {
-    // TODO: Implement popular products
-    throw new UnsupportedOperationException("Not yet implemented");
+    log.debug("Getting popular products with min purchases: {}", minPurchases);
+
+    Page<EProduct> productPage = productRepository.findPopularProducts(minPurchases, pageable);
+    List<ProductResponse> products = EnhancedProductMapper.toResponseList(productPage.getContent());
+
+    return PagedResponse.<ProductResponse>builder()
+        .content(products)
+        .pageNumber(pageable.getPageNumber())
+        .pageSize(pageable.getPageSize())
+        .totalElements((int) productPage.getTotalElements())
+        .totalPages(productPage.getTotalPages())
+        .build();
+  }
+
+  @Override
+  public PagedResponse<ProductResponse> getPopularProducts(RegionPartition region, UUID categoryId, Pageable pageable) {
+    log.debug("Getting popular products for region: {}, category: {}", region, categoryId);
+
+    ProductPopularityService.PopularPage ranking = productPopularityService.getPopularProductIds(
+        region, categoryId, pageable.getPageNumber(), pageable.getPageSize());
+
+    if (ranking.productIds().isEmpty()) {
+      // Rankings not materialized yet (cold Redis or unknown category), use lifetime counters
+      return categoryId == null ? getPopularProducts(0L, pageable) : PagedResponse.<ProductResponse>builder()
+          .content(List.of())
+          .pageNumber(pageable.getPageNumber())
+          .pageSize(pageable.getPageSize())
+          .totalElements(0)
+          .totalPages(0)
+          .build();
+    }
+
+    // Single primary-key lookup, then restore the ranking order
+    Map<UUID, EProduct> byId = productRepository.findAllById(ranking.productIds()).stream()
+        .collect(Collectors.toMap(EProduct::getId, Function.identity()));
+    List<EProduct> ordered = ranking.productIds().stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
+        .toList();
+
+    return PagedResponse.<ProductResponse>builder()
+        .content(EnhancedProductMapper.toResponseList(ordered))
+        .pageNumber(pageable.getPageNumber())
+        .pageSize(pageable.getPageSize())
+        .totalElements(ranking.totalElements())
+        .totalPages((int) Math.ceil((double) ranking.totalElements() / pageable.getPageSize()))
+        .build();
   }
 
   @Override
@@ -518,8 +648,8 @@ public class EnhancedProductServiceImpl implements EnhancedProductService {
 
   @Override
   public void incrementProductView(UUID productId) {
-    // TODO: Implement view count increment (async)
-    throw new UnsupportedOperationException("Not yet implemented");
+    // Buffered and written in batches; views of unknown ids update no row
+    productViewCounter.record(productId);
   }
 
   @Override
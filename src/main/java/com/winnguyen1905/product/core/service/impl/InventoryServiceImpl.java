@@ -12,7 +12,10 @@ import com.winnguyen1905.product.exception.ResourceNotFoundException;
 import com.winnguyen1905.product.persistance.entity.EInventory;
 import com.winnguyen1905.product.persistance.repository.InventoryRepository;
 import com.winnguyen1905.product.persistance.repository.ReservationRepository;
+import com.winnguyen1905.product.config.InventoryChangedEvent;
+import com.winnguyen1905.product.config.ProductEngagementEvent;
 import com.winnguyen1905.product.config.ReservationExpiredEvent;
+import com.winnguyen1905.product.service.NegativeCacheService;
 import com.winnguyen1905.product.util.InventoryLockingUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +25,7 @@ import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 
@@ -51,6 +55,8 @@ public class InventoryServiceImpl implements InventoryService, InventoryValidati
   @SuppressWarnings("unused")
   private final RedisTemplate<String, Object> blockingRedisTemplate;
   private final InventoryLockingUtils inventoryLockingUtils;
+  private final ApplicationEventPublisher eventPublisher;
+  private final NegativeCacheService negativeCacheService;
 
   @Transactional(readOnly = true)
   public Boolean isAccessStock(EInventory inventory, Integer quantity) {
@@ -68,6 +74,7 @@ public class InventoryServiceImpl implements InventoryService, InventoryValidati
           inventory.setQuantityAvailable(inventory.getQuantityAvailable() - quantity);
           inventory.setQuantityReserved(inventory.getQuantityReserved() + quantity);
           inventoryRepository.save(inventory);
+          eventPublisher.publishEvent(InventoryChangedEvent.of(inventory));
           return true;
         })
         .orElse(false);
@@ -182,6 +189,9 @@ public class InventoryServiceImpl implements InventoryService, InventoryValidati
 
         inventory.setQuantityReserved(inventory.getQuantityReserved() - quantity);
         inventory.setQuantitySold(inventory.getQuantitySold() + quantity);
+        if (inventory.getProduct() != null) {
+            eventPublisher.publishEvent(ProductEngagementEvent.purchase(inventory.getProduct(), quantity));
+        }
         return inventory;
     })
     .onErrorResume(e -> {
@@ -218,9 +228,15 @@ public class InventoryServiceImpl implements InventoryService, InventoryValidati
   @Override
   @Transactional(readOnly = true)
   public InventoryVm getInventoryBySku(String sku) {
+    if (negativeCacheService.isKnownAbsent(NegativeCacheService.Kind.SKU, sku)) {
+      throw new ResourceNotFoundException("Inventory not found with SKU: " + sku);
+    }
     return inventoryRepository.findBySku(sku)
         .map(this::mapToInventoryVm)
-        .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with SKU: " + sku));
+        .orElseThrow(() -> {
+          negativeCacheService.markAbsent(NegativeCacheService.Kind.SKU, sku);
+          return new ResourceNotFoundException("Inventory not found with SKU: " + sku);
+        });
   }
 
   @Override
@@ -228,7 +244,9 @@ public class InventoryServiceImpl implements InventoryService, InventoryValidati
   public InventoryVm updateInventory(UUID inventoryId) {
     EInventory inventory = inventoryRepository.findById(inventoryId)
         .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with ID: " + inventoryId));
-    return mapToInventoryVm(inventoryRepository.save(inventory));
+    EInventory saved = inventoryRepository.save(inventory);
+    eventPublisher.publishEvent(InventoryChangedEvent.of(saved));
+    return mapToInventoryVm(saved);
   }
 
   @Override
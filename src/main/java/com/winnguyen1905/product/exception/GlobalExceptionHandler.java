@@ -54,6 +54,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorVm, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<ErrorVm> handleSearchUnavailableException(SearchUnavailableException ex) {
+        ErrorVm errorVm = new ErrorVm(
+                String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()),
+                "Search unavailable",
+                ex.getMessage());
+        return new ResponseEntity<>(errorVm, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(S3FileException.class)
     public ResponseEntity<ErrorVm> handleS3FileException(S3FileException ex) {
         ErrorVm errorVm = new ErrorVm(
@@ -0,0 +1,18 @@
+package com.winnguyen1905.product.exception;
+
+/**
+ * Exception thrown when the search cluster cannot answer, as opposed to a
+ * request it rejects. Counted by the search circuit breaker.
+ */
+public class SearchUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+
+    public SearchUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
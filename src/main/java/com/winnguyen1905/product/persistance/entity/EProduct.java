@@ -10,6 +10,7 @@ import java.util.Locale;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.FilterDef;
@@ -212,11 +213,14 @@ public class EProduct implements Serializable {
   @Builder.Default
   private List<EProductVariant> variants = new ArrayList<>();
 
+  // Batch-fetched: a product list initializes these for up to 50 products per query
   @OneToMany(mappedBy = "product", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+  @BatchSize(size = 50)
   @Builder.Default
   private List<EInventory> inventories = new ArrayList<>();
 
   @OneToMany(mappedBy = "product", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+  @BatchSize(size = 50)
   @Builder.Default
   private List<EProductImage> images = new ArrayList<>();
 
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.Type;
@@ -160,7 +161,9 @@ public class EProductVariant implements Serializable {
   @JoinColumn(name = "product_id", nullable = false)
   private EProduct product;
 
+  // Batch-fetched: mapping a product's variants loads their images in one query, not one per variant
   @OneToMany(mappedBy = "variant", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+  @BatchSize(size = 50)
   @Builder.Default
   private List<EProductImage> images = new ArrayList<>();
 
@@ -5,9 +5,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -19,6 +16,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.winnguyen1905.product.common.constant.ProductStatus;
 import com.winnguyen1905.product.common.constant.ProductType;
@@ -31,27 +29,20 @@ import jakarta.persistence.QueryHint;
 @Repository
 public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>, JpaSpecificationExecutor<EProduct> {
 
-    // ================== BASIC CRUD WITH CACHING ==================
+    // ================== DETAIL LOADING ==================
 
-    @Override
-    @Cacheable(value = "products", key = "#id", unless = "#result == null")
-    Optional<EProduct> findById(UUID id);
-
-    @Override
-    @CachePut(value = "products", key = "#result.id")
-    <S extends EProduct> S save(S entity);
-
-    @Override
-    @CacheEvict(value = "products", key = "#id")
-    void deleteById(UUID id);
+    // Entities are never cached; ProductSnapshotService caches the DTO built from this graph.
+    // Only one bag can be fetch-joined; images, inventories and variant images are
+    // @BatchSize collections, so the whole detail loads in four queries at most
+    @Query("SELECT DISTINCT p FROM EProduct p LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.category "
+        + "LEFT JOIN FETCH p.variants WHERE p.id = :id")
+    Optional<EProduct> findDetailById(@Param("id") UUID id);
 
     // ================== VENDOR-SPECIFIC QUERIES ==================
 
-    @Cacheable(value = "products", key = "'vendor:' + #vendorId + ':' + #pageable.pageNumber")
     @Query("SELECT p FROM EProduct p WHERE p.vendorId = :vendorId AND p.isDeleted = false")
     Page<EProduct> findByVendorId(@Param("vendorId") UUID vendorId, Pageable pageable);
 
-    @Cacheable(value = "products", key = "'shop:' + #shopId + ':published:' + #pageable.pageNumber")
     Page<EProduct> findAllByShopIdAndIsPublishedTrue(UUID shopId, Pageable pageable);
 
     @Query("SELECT p FROM EProduct p WHERE p.shopId = :shopId AND p.status = :status AND p.isDeleted = false")
@@ -74,7 +65,6 @@ public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>
     // ================== BATCH OPERATIONS ==================
 
     @Modifying
-    @CacheEvict(value = "products", allEntries = true)
     @Query("UPDATE EProduct p SET p.isDeleted = true WHERE p.id IN :ids AND p.vendorId = :vendorId")
     int softDeleteByIdsAndVendor(@Param("ids") List<UUID> ids, @Param("vendorId") UUID vendorId);
 
@@ -83,7 +73,6 @@ public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>
 
     // ================== PUBLISHED PRODUCTS ==================
 
-    @Cacheable(value = "products", key = "'published:' + #id")
     Optional<EProduct> findByIdAndIsPublishedTrue(UUID id);
 
     @Query("SELECT p FROM EProduct p WHERE p.isPublished = true AND p.status = 'ACTIVE' AND p.isDeleted = false")
@@ -111,6 +100,64 @@ public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>
                                   @Param("region") RegionPartition region,
                                   Pageable pageable);
 
+    /**
+     * Indexed by idx_product_search_vector; must stay identical to the expression
+     * in the db/migration script or the index is not used
+     */
+    String SEARCH_VECTOR = "to_tsvector('simple', COALESCE(p.product_name, '') || ' ' || "
+            + "COALESCE(p.tags, '') || ' ' || COALESCE(p.product_description, ''))";
+
+    /**
+     * Full-text search served by the search vector expression index, best match
+     * first. Only usable when ProductTextSearchInitializer reports full-text as
+     * available.
+     */
+    @Query(value = "SELECT p.* FROM products p WHERE " +
+           SEARCH_VECTOR + " @@ plainto_tsquery('simple', :query) AND " +
+           "(CAST(:productType AS VARCHAR) IS NULL OR p.product_type = CAST(:productType AS VARCHAR)) AND " +
+           "(CAST(:vendorId AS UUID) IS NULL OR p.vendor_id = CAST(:vendorId AS UUID)) AND " +
+           "(CAST(:region AS VARCHAR) IS NULL OR p.region = CAST(:region AS VARCHAR)) AND " +
+           "p.is_deleted = false " +
+           "ORDER BY ts_rank(" + SEARCH_VECTOR + ", plainto_tsquery('simple', :query)) DESC, p.id",
+           countQuery = "SELECT COUNT(*) FROM products p WHERE " +
+           SEARCH_VECTOR + " @@ plainto_tsquery('simple', :query) AND " +
+           "(CAST(:productType AS VARCHAR) IS NULL OR p.product_type = CAST(:productType AS VARCHAR)) AND " +
+           "(CAST(:vendorId AS UUID) IS NULL OR p.vendor_id = CAST(:vendorId AS UUID)) AND " +
+           "(CAST(:region AS VARCHAR) IS NULL OR p.region = CAST(:region AS VARCHAR)) AND " +
+           "p.is_deleted = false",
+           nativeQuery = true)
+    Page<EProduct> searchProductsFullText(@Param("query") String query,
+                                          @Param("productType") String productType,
+                                          @Param("vendorId") UUID vendorId,
+                                          @Param("region") String region,
+                                          Pageable pageable);
+
+    /**
+     * Substring and typo-tolerant name search served by the trigram GIN index,
+     * most similar name first. The pattern is the query escaped with
+     * CommonUtils.containsPattern. Only usable when the trigram index exists.
+     */
+    @Query(value = "SELECT p.* FROM products p WHERE " +
+           "(p.product_name ILIKE :pattern ESCAPE '!' OR p.product_name % :query) AND " +
+           "(CAST(:productType AS VARCHAR) IS NULL OR p.product_type = CAST(:productType AS VARCHAR)) AND " +
+           "(CAST(:vendorId AS UUID) IS NULL OR p.vendor_id = CAST(:vendorId AS UUID)) AND " +
+           "(CAST(:region AS VARCHAR) IS NULL OR p.region = CAST(:region AS VARCHAR)) AND " +
+           "p.is_deleted = false " +
+           "ORDER BY similarity(p.product_name, :query) DESC, p.id",
+           countQuery = "SELECT COUNT(*) FROM products p WHERE " +
+           "(p.product_name ILIKE :pattern ESCAPE '!' OR p.product_name % :query) AND " +
+           "(CAST(:productType AS VARCHAR) IS NULL OR p.product_type = CAST(:productType AS VARCHAR)) AND " +
+           "(CAST(:vendorId AS UUID) IS NULL OR p.vendor_id = CAST(:vendorId AS UUID)) AND " +
+           "(CAST(:region AS VARCHAR) IS NULL OR p.region = CAST(:region AS VARCHAR)) AND " +
+           "p.is_deleted = false",
+           nativeQuery = true)
+    Page<EProduct> searchProductsByTrigram(@Param("query") String query,
+                                           @Param("pattern") String pattern,
+                                           @Param("productType") String productType,
+                                           @Param("vendorId") UUID vendorId,
+                                           @Param("region") String region,
+                                           Pageable pageable);
+
     // ================== PARTITION-FIRST SEARCH ==================
 
     @Query("SELECT p FROM EProduct p WHERE " +
@@ -164,12 +211,10 @@ public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>
     // ================== BULK OPERATIONS ==================
 
     @Modifying
-    @CacheEvict(value = "products", allEntries = true)
     @Query("UPDATE EProduct p SET p.status = :status WHERE p.id IN :ids AND p.vendorId = :vendorId")
     int updateStatusByIdsAndVendor(@Param("ids") List<UUID> ids, @Param("status") ProductStatus status, @Param("vendorId") UUID vendorId);
 
     @Modifying
-    @CacheEvict(value = "products", allEntries = true)
     @Query("UPDATE EProduct p SET p.isPublished = :published WHERE p.id IN :ids AND p.vendorId = :vendorId")
     int updatePublishedByIdsAndVendor(@Param("ids") List<UUID> ids, @Param("published") Boolean published, @Param("vendorId") UUID vendorId);
 
@@ -188,10 +233,29 @@ public interface EnhancedProductRepository extends JpaRepository<EProduct, UUID>
            "p.purchaseCount > :minPurchases AND p.isDeleted = false ORDER BY p.purchaseCount DESC")
     Page<EProduct> findPopularProducts(@Param("minPurchases") Long minPurchases, Pageable pageable);
 
+    // Hot set for cache warm-up
+    @Query("SELECT p.id FROM EProduct p WHERE p.isPublished = true AND p.status = 'ACTIVE' AND p.isDeleted = false " +
+           "ORDER BY p.purchaseCount DESC")
+    List<UUID> findTopSellingIds(Pageable pageable);
+
+    @Query("SELECT p.id FROM EProduct p WHERE p.isPublished = true AND p.status = 'ACTIVE' AND p.isDeleted = false " +
+           "ORDER BY p.viewCount DESC")
+    List<UUID> findMostViewedIds(Pageable pageable);
+
     @Query("SELECT p FROM EProduct p WHERE p.category.id = :categoryId AND p.id != :excludeId AND " +
            "p.isPublished = true AND p.status = 'ACTIVE' AND p.isDeleted = false ORDER BY p.ratingAverage DESC")
     Page<EProduct> findRelatedProducts(@Param("categoryId") UUID categoryId, @Param("excludeId") UUID excludeId, Pageable pageable);
 
+    @Query("SELECT p FROM EProduct p WHERE p.isPublished = true AND p.status = 'ACTIVE' AND p.isDeleted = false AND " +
+           "(p.viewCount > 0 OR p.purchaseCount > 0) ORDER BY p.id")
+    Page<EProduct> findEngagedProducts(Pageable pageable);
+
+    // Flushed in batches by ProductViewCounter, one statement per product and flush
+    @Modifying
+    @Transactional
+    @Query("UPDATE EProduct p SET p.viewCount = p.viewCount + :views WHERE p.id = :id")
+    int addViewCount(@Param("id") UUID id, @Param("views") long views);
+
     // ================== PERFORMANCE MONITORING ==================
 
     @Query("SELECT p FROM EProduct p WHERE p.viewCount > :threshold AND p.isDeleted = false ORDER BY p.viewCount DESC")
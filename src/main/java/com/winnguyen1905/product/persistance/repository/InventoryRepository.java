@@ -1,5 +1,6 @@
 package com.winnguyen1905.product.persistance.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,7 +12,6 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
 import com.winnguyen1905.product.persistance.entity.EInventory;
@@ -22,6 +22,8 @@ import jakarta.persistence.QueryHint;
 @Repository
 public interface InventoryRepository extends JpaRepository<EInventory, UUID> {
     Optional<EInventory> findBySku(String sku);
+
+    List<EInventory> findAllBySkuIn(Collection<String> skus);
     
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT i FROM EInventory i WHERE i.sku = :sku")
@@ -38,12 +40,10 @@ public interface InventoryRepository extends JpaRepository<EInventory, UUID> {
     @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "1000")})
     Optional<EInventory> findByIdWithLock(@Param("id") UUID id);
     
-    @Cacheable(value = "inventory", key = "#id")
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT i FROM EInventory i WHERE i.id = :id")
     Optional<EInventory> findByIdWithOptimisticLock(@Param("id") UUID id);
     
-    @Cacheable(value = "inventory", key = "#sku")
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT i FROM EInventory i WHERE i.sku = :sku")
     Optional<EInventory> findBySkuWithOptimisticLock(@Param("sku") String sku);
@@ -1,5 +1,6 @@
 package com.winnguyen1905.product.persistance.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -24,4 +25,10 @@ public interface ProductVariantRepository extends JpaRepository<EProductVariant,
   List<EProductVariant> findByInventoryId(UUID inventoryId);
 
   List<EProductVariant> findAllByIdIn(Set<UUID> ids);
+
+  @Query("select pv from EProductVariant pv join fetch pv.product where pv.id in :ids")
+  List<EProductVariant> findAllWithProductByIdIn(Collection<UUID> ids);
+
+  @Query("select pv from EProductVariant pv join fetch pv.product where pv.sku in :skus")
+  List<EProductVariant> findBySkuIn(Collection<String> skus);
 }
@@ -0,0 +1,204 @@
+package com.winnguyen1905.product.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.winnguyen1905.product.config.cache.CachePolicyProperties;
+import com.winnguyen1905.product.config.cache.RegionalRedisConnectionFactory;
+import com.winnguyen1905.product.config.cache.TieredCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-cache statistics for the admin cache status endpoint: hit and miss
+ * counts of both cache levels as seen by this instance, the L1's hottest keys,
+ * and the size of each cache in every region's Redis with its largest keys.
+ * Caches whose policy is not regional live once, in the default (US) Redis,
+ * and are scanned only there, reported under "shared".
+ *
+ * Sizes come from a SCAN over the cache's key prefix per region, capped at
+ * {@code cache.stats.scan-limit} keys, and memory from MEMORY USAGE on the
+ * first {@code cache.stats.memory-samples} of them, so a report stays cheap on
+ * a large keyspace at the cost of being a sample.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private static final int SCAN_BATCH = 1000;
+    private static final String SHARED = "shared";
+
+    public record CacheReport(String name, LocalStats local, RedisStats redis) {
+    }
+
+    /** L1 statistics of this instance, null in the report when the cache has no L1 */
+    public record LocalStats(long size, long hits, long misses, double hitRate, long evictions,
+            List<String> hottestKeys) {
+    }
+
+    /** L2 statistics; hits and misses are this instance's, keys and memory are the shared cache's */
+    public record RedisStats(long keys, boolean keysTruncated, Map<String, Long> keysByRegion, long hits,
+            long misses, long puts, long deletes, double hitRate, long lockWaitMillis, long sampledBytes,
+            List<KeySize> largestKeys) {
+    }
+
+    public record KeySize(String region, String key, long bytes) {
+    }
+
+    private record RegionScan(long keys, boolean truncated, List<String> samples) {
+    }
+
+    private final CacheManager cacheManager;
+    private final RegionalRedisConnectionFactory regionalConnectionFactory;
+    // Default (US) Redis, where the non-regional caches live
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final CachePolicyProperties cachePolicies;
+    private StringRedisTemplate redisTemplate;
+    private StringRedisTemplate sharedRedisTemplate;
+
+    @PostConstruct
+    void init() {
+        // Routed template: inside forEachRegion it reads the pinned region's keyspace
+        redisTemplate = new StringRedisTemplate(regionalConnectionFactory);
+        sharedRedisTemplate = new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    public List<CacheReport> report() {
+        List<CacheReport> reports = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof TieredCache tieredCache) {
+                reports.add(new CacheReport(cacheName, localStats(tieredCache), redisStats(tieredCache)));
+            } else if (cache instanceof RedisCache redisCache) {
+                reports.add(new CacheReport(cacheName, null, redisStats(redisCache)));
+            }
+        }
+        return reports;
+    }
+
+    private LocalStats localStats(TieredCache cache) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = cache.getLocalCache();
+        if (local == null) {
+            return null;
+        }
+        CacheStats stats = local.stats();
+        List<String> hottest = local.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(cachePolicies.getStats().getTopKeys()).keySet()))
+                .orElse(List.of());
+        return new LocalStats(local.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), hottest);
+    }
+
+    private RedisStats redisStats(TieredCache cache) {
+        return cache.getRemoteCache() instanceof RedisCache redisCache ? redisStats(redisCache) : null;
+    }
+
+    private RedisStats redisStats(RedisCache cache) {
+        CacheStatistics stats = cache.getStatistics();
+        long lookups = stats.getHits() + stats.getMisses();
+        double hitRate = lookups == 0 ? 1.0 : (double) stats.getHits() / lookups;
+
+        String prefix = cache.getCacheConfiguration().getKeyPrefixFor(cache.getName());
+        Map<String, Long> keysByRegion = new LinkedHashMap<>();
+        List<KeySize> sizes = new ArrayList<>();
+        AtomicBoolean truncated = new AtomicBoolean();
+        try {
+            if (Boolean.FALSE.equals(cachePolicies.resolve(cache.getName()).getRegional())) {
+                collect(sharedRedisTemplate, SHARED, prefix, keysByRegion, sizes, truncated);
+            } else {
+                regionalConnectionFactory.forEachRegion(region ->
+                        collect(redisTemplate, region.getCode(), prefix, keysByRegion, sizes, truncated));
+            }
+        } catch (Exception e) {
+            log.warn("Could not read Redis statistics of cache {}: {}", cache.getName(), e.getMessage());
+        }
+
+        long keys = keysByRegion.values().stream().mapToLong(Long::longValue).sum();
+        long sampledBytes = sizes.stream().mapToLong(KeySize::bytes).sum();
+        List<KeySize> largest = sizes.stream()
+                .sorted(Comparator.comparingLong(KeySize::bytes).reversed())
+                .limit(cachePolicies.getStats().getTopKeys())
+                .toList();
+        return new RedisStats(keys, truncated.get(), keysByRegion, stats.getHits(), stats.getMisses(),
+                stats.getPuts(), stats.getDeletes(), hitRate, stats.getLockWaitDuration(TimeUnit.MILLISECONDS),
+                sampledBytes, largest);
+    }
+
+    private void collect(StringRedisTemplate template, String label, String prefix, Map<String, Long> keysByRegion,
+            List<KeySize> sizes, AtomicBoolean truncated) {
+        RegionScan scan = scan(template, prefix);
+        keysByRegion.put(label, scan.keys());
+        if (scan.truncated()) {
+            truncated.set(true);
+        }
+        memoryUsage(template, scan.samples()).forEach(size -> sizes.add(new KeySize(label,
+                size.key().substring(prefix.length()), size.bytes())));
+    }
+
+    /** Count the keys under {@code prefix} in the template's Redis, keeping the first as memory samples */
+    private RegionScan scan(StringRedisTemplate template, String prefix) {
+        CachePolicyProperties.Stats limits = cachePolicies.getStats();
+        long keys = 0;
+        List<String> samples = new ArrayList<>();
+        try (Cursor<String> cursor = template.scan(ScanOptions.scanOptions()
+                .match(prefix + "*")
+                .count(SCAN_BATCH)
+                .build())) {
+            while (cursor.hasNext() && keys < limits.getScanLimit()) {
+                String key = cursor.next();
+                if (samples.size() < limits.getMemorySamples()) {
+                    samples.add(key);
+                }
+                keys++;
+            }
+            return new RegionScan(keys, cursor.hasNext(), samples);
+        }
+    }
+
+    /**
+     * MEMORY USAGE of each key in one pipeline; keys that expired in between
+     * are left out
+     */
+    private List<KeySize> memoryUsage(StringRedisTemplate template, List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> requestMemoryUsage(connection, key));
+            return null;
+        });
+
+        List<KeySize> sizes = new ArrayList<>();
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            if (results.get(i) instanceof Number bytes) {
+                sizes.add(new KeySize(null, keys.get(i), bytes.longValue()));
+            }
+        }
+        return sizes;
+    }
+
+    private static void requestMemoryUsage(RedisConnection connection, String key) {
+        connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,242 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.config.RegionalDataSourceConfiguration;
+import com.winnguyen1905.product.core.elasticsearch.service.ProductSearchService;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+import com.winnguyen1905.product.persistance.repository.EnhancedProductRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the hot set into the caches so a fresh instance does not serve its
+ * first minutes of traffic cold: detail snapshots of the best selling and most
+ * viewed products, the popular products list and the default browse page and
+ * facets of every region, the regional entries loaded in each region. Runs once
+ * the application is ready, then again on a fixed delay; the periodic run
+ * recomputes and overwrites the entries so they are replaced ahead of expiry
+ * instead of only being read while still cached. Runs happen on the warm-up
+ * threads and never block the caller or the scheduler.
+ *
+ * Until the first run has loaded {@code cache.warmup.ready-share} of the hot
+ * set, {@link #isWarm()} is false and the readiness probe reports the instance
+ * out of service. After {@code cache.warmup.ready-timeout} the instance is
+ * reported ready regardless, so a slow database cannot keep it out forever.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CacheWarmupService {
+
+    private static final int POPULAR_PRODUCTS_LIMIT = 10; // ElasticsearchController default
+
+    public record Progress(int loaded, int planned, boolean warm) {
+    }
+
+    private final EnhancedProductRepository productRepository;
+    private final ProductSnapshotService productSnapshotService;
+    private final ObjectProvider<ProductSearchService> productSearchService;
+
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.warmup.top-products:500}")
+    private int topProducts;
+
+    @Value("${cache.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${cache.warmup.ready-share:0.8}")
+    private double readyShare;
+
+    @Value("${cache.warmup.ready-timeout:2m}")
+    private Duration readyTimeout;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile int planned = -1;
+    private volatile long startedAt;
+    private volatile boolean warm;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "cache-warmup-" + threads.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startedAt = System.currentTimeMillis();
+        if (!enabled) {
+            warm = true;
+            return;
+        }
+        warmUp(false);
+    }
+
+    @Scheduled(initialDelayString = "${cache.warmup.refresh-interval-ms:600000}",
+            fixedDelayString = "${cache.warmup.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (enabled) {
+            warmUp(true);
+        }
+    }
+
+    /**
+     * Trigger a warm-up from outside the schedule, e.g. after a deploy or a
+     * cache flush. Returns immediately.
+     */
+    public void warmUpAsync() {
+        warmUp(false);
+    }
+
+    /**
+     * Whether the readiness probe may report this instance as ready
+     */
+    public boolean isWarm() {
+        if (warm || !enabled) {
+            return true;
+        }
+        if (startedAt > 0 && System.currentTimeMillis() - startedAt > readyTimeout.toMillis()) {
+            log.warn("Cache warm-up not done after {}, reporting ready anyway", readyTimeout);
+            warm = true;
+        }
+        return warm;
+    }
+
+    /**
+     * Loaded and planned entries of the current or last run
+     */
+    public Progress progress() {
+        return new Progress(loaded.get(), Math.max(planned, 0), isWarm());
+    }
+
+    /**
+     * Start a run on the warm-up threads unless one is still going. With
+     * {@code refreshAhead} every entry is recomputed and overwritten, otherwise
+     * it is only loaded where missing.
+     */
+    private void warmUp(boolean refreshAhead) {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Cache warm-up already running");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            CompletableFuture.supplyAsync(() -> plan(refreshAhead), executor)
+                    .thenCompose(tasks -> {
+                        loaded.set(0);
+                        planned = tasks.size();
+                        if (tasks.isEmpty()) {
+                            warm = true;
+                        }
+                        return CompletableFuture.allOf(tasks.stream()
+                                .map(task -> CompletableFuture.runAsync(() -> runTask(task, failed), executor))
+                                .toArray(CompletableFuture[]::new));
+                    })
+                    .whenComplete((ignored, e) -> {
+                        running.set(false);
+                        if (e != null) {
+                            log.error("Cache warm-up failed: {}", e.getMessage(), e);
+                        } else {
+                            log.info("Cache warm-up {} {}/{} entries ({} failed) in {} ms",
+                                    refreshAhead ? "refreshed" : "loaded", loaded.get(), planned, failed.get(),
+                                    System.currentTimeMillis() - start);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            running.set(false);
+        }
+    }
+
+    private void runTask(Runnable task, AtomicInteger failed) {
+        try {
+            task.run();
+            if (loaded.incrementAndGet() >= Math.ceil(planned * readyShare)) {
+                warm = true;
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.debug("Cache warm-up task failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshots live in a cache shared by all regions and are loaded once; the
+     * search caches are regional, so those tasks run once in each region
+     */
+    private List<Runnable> plan(boolean refreshAhead) {
+        Set<UUID> productIds = new LinkedHashSet<>();
+        productIds.addAll(productRepository.findTopSellingIds(PageRequest.of(0, topProducts)));
+        productIds.addAll(productRepository.findMostViewedIds(PageRequest.of(0, topProducts)));
+
+        List<Runnable> tasks = new ArrayList<>();
+        productIds.forEach(productId -> tasks.add(refreshAhead
+                ? () -> productSnapshotService.refreshProduct(productId)
+                : () -> productSnapshotService.getProduct(productId)));
+
+        ProductSearchService searchService = productSearchService.getIfAvailable();
+        if (searchService != null) {
+            for (RegionPartition region : RegionPartition.values()) {
+                // The default browse page stands in for popular searches, which nothing records yet
+                SearchProductRequest browse = SearchProductRequest.builder().region(region).build();
+                tasks.add(inRegion(region, refreshAhead
+                        ? () -> searchService.refreshPopularProducts(POPULAR_PRODUCTS_LIMIT)
+                        : () -> searchService.getPopularProducts(POPULAR_PRODUCTS_LIMIT)));
+                tasks.add(inRegion(region, refreshAhead
+                        ? () -> searchService.refreshSearchProducts(browse)
+                        : () -> searchService.searchProducts(browse)));
+                tasks.add(inRegion(region, refreshAhead
+                        ? () -> searchService.refreshFacets(browse)
+                        : () -> searchService.getFacets(browse)));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Run a task as a request of {@code region}, so its cache entries are
+     * keyed for and stored in that region's Redis
+     */
+    private static Runnable inRegion(RegionPartition region, Runnable task) {
+        return () -> {
+            RegionalDataSourceConfiguration.RegionalContext.setCurrentRegion(region);
+            try {
+                task.run();
+            } finally {
+                RegionalDataSourceConfiguration.RegionalContext.clear();
+            }
+        };
+    }
+}
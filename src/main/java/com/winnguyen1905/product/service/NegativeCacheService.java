@@ -0,0 +1,105 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.util.CommonUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Short-lived tombstones for lookups that found nothing, so repeated requests
+ * for ids, slugs and SKUs that do not exist (bots, stale links) are answered
+ * without a database query. A tombstone is a single boolean in the
+ * {@code not-found} cache, keyed by kind and lookup key, and lives for that
+ * cache's TTL.
+ *
+ * Writers clear the tombstones of what they create, restore or rename, which
+ * evicts them from Redis and from every instance's L1 once the write commits;
+ * cleared earlier, a lookup racing the write could record the tombstone again
+ * from the uncommitted state. Cache failures never fail the lookup; they only
+ * cost the database query.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NegativeCacheService {
+
+    public static final String CACHE_NAME = "not-found";
+
+    public enum Kind {
+        PRODUCT, SLUG, SKU
+    }
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Whether a recent lookup of this key found nothing
+     */
+    public boolean isKnownAbsent(Kind kind, Object key) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null || key == null) {
+            return false;
+        }
+        try {
+            return cache.get(tombstoneKey(kind, key)) != null;
+        } catch (RuntimeException e) {
+            log.debug("Negative cache unavailable for {} {}: {}", kind, key, e.getMessage());
+            return false;
+        }
+    }
+
+    public void markAbsent(Kind kind, Object key) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null || key == null) {
+            return;
+        }
+        try {
+            // No broadcast needed: no other instance can hold anything but the same tombstone
+            cache.putIfAbsent(tombstoneKey(kind, key), Boolean.TRUE);
+        } catch (RuntimeException e) {
+            log.debug("Failed to record {} {} as absent: {}", kind, key, e.getMessage());
+        }
+    }
+
+    public void clear(Kind kind, Object key) {
+        clear(kind, key == null ? List.of() : List.of(key));
+    }
+
+    /**
+     * Clear the tombstones once the current transaction commits, or right away
+     * outside of one
+     */
+    public void clear(Kind kind, Collection<?> keys) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        List<?> present = keys.stream().filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return;
+        }
+        CommonUtils.afterCommit(() -> present.forEach(key -> {
+            try {
+                cache.evict(tombstoneKey(kind, key));
+            } catch (RuntimeException e) {
+                log.warn("Failed to clear {} tombstone {}, it expires on its own: {}", kind, key, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Tombstone key of a slug lookup; slugs are unique per vendor
+     */
+    public static String slugKey(String slug, Object vendorId) {
+        return slug + ":" + vendorId;
+    }
+
+    private static String tombstoneKey(Kind kind, Object key) {
+        return kind.name().toLowerCase() + ":" + key;
+    }
+}
@@ -0,0 +1,249 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.config.ProductEngagementEvent;
+import com.winnguyen1905.product.persistance.entity.EProduct;
+import com.winnguyen1905.product.persistance.repository.EnhancedProductRepository;
+import com.winnguyen1905.product.secure.RegionPartition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains precomputed popularity rankings in Redis sorted sets, one per region
+ * and one per region/category pair. Views and purchases add to a product's score
+ * as they happen and a scheduled job decays every ranking, so reads are a plain
+ * ZREVRANGE over an already ordered set.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductPopularityService {
+
+    private static final String REGION_KEY_PREFIX = "popular:region:";
+    private static final String CATEGORY_KEY_SEGMENT = ":category:";
+    private static final String KEY_REGISTRY = "popular:keys";
+    private static final String DECAYED_AT_KEY = "popular:decayed-at";
+    private static final String DECAY_JOB = "popularity-decay";
+    private static final Duration DECAY_LOCK_TTL = Duration.ofMinutes(10);
+
+    private final StringRedisTemplate redisTemplate;
+    private final EnhancedProductRepository productRepository;
+    private final ScheduledJobLock scheduledJobLock;
+
+    @Value("${product.popularity.view-weight:1.0}")
+    private double viewWeight;
+
+    @Value("${product.popularity.purchase-weight:10.0}")
+    private double purchaseWeight;
+
+    @Value("${product.popularity.half-life-hours:72}")
+    private long halfLifeHours;
+
+    @Value("${product.popularity.decay-interval-ms:3600000}")
+    private long decayIntervalMs;
+
+    @Value("${product.popularity.max-entries:5000}")
+    private int maxEntries;
+
+    /**
+     * One page of a ranking, most popular first
+     */
+    public record PopularPage(List<UUID> productIds, long totalElements) {
+        public static PopularPage empty() {
+            return new PopularPage(List.of(), 0);
+        }
+    }
+
+    @Async
+    @EventListener
+    public void onEngagement(ProductEngagementEvent event) {
+        if (event.getProductId() == null || event.getRegion() == null) {
+            return;
+        }
+
+        double weight = event.getType() == ProductEngagementEvent.Type.PURCHASE ? purchaseWeight : viewWeight;
+        double delta = weight * Math.max(1, event.getQuantity());
+        String member = event.getProductId().toString();
+
+        try {
+            List<String> keys = rankingKeys(event.getRegion(), event.getCategoryId());
+            for (String key : keys) {
+                redisTemplate.opsForZSet().incrementScore(key, member, delta);
+            }
+            // Register keys so the decay job can find them without a KEYS scan
+            redisTemplate.opsForSet().add(KEY_REGISTRY, keys.toArray(String[]::new));
+        } catch (Exception e) {
+            log.warn("Failed to record {} for product {}: {}", event.getType(), event.getProductId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Read a page of the ranking for a region, optionally narrowed to a category
+     */
+    public PopularPage getPopularProductIds(RegionPartition region, UUID categoryId, int page, int size) {
+        String key = rankingKey(region, categoryId);
+        long start = (long) page * size;
+
+        try {
+            Set<String> members = redisTemplate.opsForZSet().reverseRange(key, start, start + size - 1);
+            if (members == null || members.isEmpty()) {
+                return PopularPage.empty();
+            }
+
+            Long total = redisTemplate.opsForZSet().zCard(key);
+            List<UUID> productIds = members.stream().map(UUID::fromString).toList();
+            return new PopularPage(productIds, total != null ? total : productIds.size());
+        } catch (Exception e) {
+            log.warn("Failed to read popularity ranking {}: {}", key, e.getMessage());
+            return PopularPage.empty();
+        }
+    }
+
+    /**
+     * Drop a product from every ranking it appears in, e.g. when it is unpublished or deleted
+     */
+    public void removeProduct(UUID productId) {
+        try {
+            Set<String> keys = redisTemplate.opsForSet().members(KEY_REGISTRY);
+            if (keys != null) {
+                for (String key : keys) {
+                    redisTemplate.opsForZSet().remove(key, productId.toString());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to remove product {} from popularity rankings: {}", productId, e.getMessage());
+        }
+    }
+
+    /**
+     * Scale every ranking down by the decay accumulated since the last decay and
+     * trim the long tail. ZUNIONSTORE with a single weighted source rescales a set
+     * in place.
+     *
+     * Every instance fires this trigger. Runs are serialized by a job lock and the
+     * factor is computed from the time of the last decay stored in Redis, so the
+     * rankings decay by the elapsed time however many instances run it; a run that
+     * comes shortly after another one's is skipped.
+     */
+    @Scheduled(fixedDelayString = "${product.popularity.decay-interval-ms:3600000}")
+    public void decayRankings() {
+        scheduledJobLock.runExclusively(DECAY_JOB, DECAY_LOCK_TTL, this::decaySinceLastRun);
+    }
+
+    private void decaySinceLastRun() {
+        try {
+            long now = System.currentTimeMillis();
+            String decayedAt = redisTemplate.opsForValue().get(DECAYED_AT_KEY);
+            long elapsedMs = decayedAt != null ? now - Long.parseLong(decayedAt) : decayIntervalMs;
+            if (elapsedMs < decayIntervalMs / 2) {
+                log.debug("Popularity rankings decayed {} ms ago, skipping", elapsedMs);
+                return;
+            }
+
+            Set<String> keys = redisTemplate.opsForSet().members(KEY_REGISTRY);
+            if (keys != null && !keys.isEmpty()) {
+                double factor = Math.pow(0.5, (double) elapsedMs / Duration.ofHours(halfLifeHours).toMillis());
+                for (String key : keys) {
+                    redisTemplate.opsForZSet().unionAndStore(key, Collections.emptyList(), key, Aggregate.SUM,
+                            Weights.of(factor));
+                    redisTemplate.opsForZSet().removeRange(key, 0, -(maxEntries + 1L));
+                }
+                log.debug("Decayed {} popularity rankings by factor {}", keys.size(), factor);
+            }
+            redisTemplate.opsForValue().set(DECAYED_AT_KEY, Long.toString(now));
+        } catch (Exception e) {
+            log.warn("Popularity decay cycle failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Seed the rankings from the lifetime counters on EProduct when Redis has none yet
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        try {
+            Long registered = redisTemplate.opsForSet().size(KEY_REGISTRY);
+            if (registered != null && registered > 0) {
+                return;
+            }
+            rebuildFromDatabase();
+        } catch (Exception e) {
+            log.warn("Failed to seed popularity rankings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every ranking from viewCount/purchaseCount, replacing what is in Redis
+     */
+    public void rebuildFromDatabase() {
+        log.info("Rebuilding popularity rankings from database counters");
+
+        Map<String, Set<TypedTuple<String>>> rankings = new HashMap<>();
+        int pageNumber = 0;
+        Page<EProduct> page;
+        do {
+            page = productRepository.findEngagedProducts(PageRequest.of(pageNumber++, 500));
+            for (EProduct product : page.getContent()) {
+                if (product.getRegion() == null) {
+                    continue;
+                }
+                long views = product.getViewCount() != null ? product.getViewCount() : 0L;
+                long purchases = product.getPurchaseCount() != null ? product.getPurchaseCount() : 0L;
+                double score = viewWeight * views + purchaseWeight * purchases;
+                UUID categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+                TypedTuple<String> entry = TypedTuple.of(product.getId().toString(), score);
+                for (String key : rankingKeys(product.getRegion(), categoryId)) {
+                    rankings.computeIfAbsent(key, k -> new HashSet<>()).add(entry);
+                }
+            }
+        } while (page.hasNext());
+
+        Set<String> stale = redisTemplate.opsForSet().members(KEY_REGISTRY);
+        if (stale != null && !stale.isEmpty()) {
+            redisTemplate.delete(stale);
+        }
+        redisTemplate.delete(KEY_REGISTRY);
+
+        rankings.forEach((key, entries) -> {
+            redisTemplate.opsForZSet().add(key, entries);
+            redisTemplate.opsForSet().add(KEY_REGISTRY, key);
+        });
+        log.info("Rebuilt {} popularity rankings", rankings.size());
+    }
+
+    private List<String> rankingKeys(RegionPartition region, UUID categoryId) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(rankingKey(region, null));
+        if (categoryId != null) {
+            keys.add(rankingKey(region, categoryId));
+        }
+        return keys;
+    }
+
+    private String rankingKey(RegionPartition region, UUID categoryId) {
+        String key = REGION_KEY_PREFIX + region.getCode();
+        return categoryId != null ? key + CATEGORY_KEY_SEGMENT + categoryId : key;
+    }
+}
@@ -0,0 +1,75 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.core.mapper_v2.EnhancedProductMapper;
+import com.winnguyen1905.product.core.model.response.ProductResponse;
+import com.winnguyen1905.product.exception.ResourceNotFoundException;
+import com.winnguyen1905.product.persistance.repository.EnhancedProductRepository;
+import com.winnguyen1905.product.util.CommonUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Cache of product detail snapshots. The cached value is the immutable
+ * {@link ProductResponse} record (with its variant, image and inventory
+ * records) built once inside a transaction from a fetch-joined query, so no
+ * Hibernate entity or proxy ever reaches the cache and a hit needs no further
+ * database access. Access and visibility checks are left to the callers and
+ * run on every request, cached or not. Writers evict the {@code products}
+ * entry for the product id through {@link #evict(UUID)}, after their commit. Ids with no product are remembered by
+ * {@link NegativeCacheService} instead, since a miss is not cached here.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSnapshotService {
+
+    public static final String CACHE_NAME = "products";
+
+    private final EnhancedProductRepository productRepository;
+    private final NegativeCacheService negativeCacheService;
+    private final CacheManager cacheManager;
+
+    @Cacheable(value = CACHE_NAME, key = "#productId", sync = true)
+    @Transactional(readOnly = true)
+    public ProductResponse getProduct(UUID productId) {
+        if (negativeCacheService.isKnownAbsent(NegativeCacheService.Kind.PRODUCT, productId)) {
+            throw new ResourceNotFoundException("Product not found: " + productId);
+        }
+        log.debug("Building product snapshot: {}", productId);
+        return productRepository.findDetailById(productId)
+                .map(EnhancedProductMapper::toResponse)
+                .orElseThrow(() -> {
+                    negativeCacheService.markAbsent(NegativeCacheService.Kind.PRODUCT, productId);
+                    return new ResourceNotFoundException("Product not found: " + productId);
+                });
+    }
+
+    /**
+     * Evict the snapshot once the current transaction commits, or right away
+     * outside of one
+     */
+    public void evict(UUID productId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            CommonUtils.afterCommit(() -> cache.evict(productId));
+        }
+    }
+
+    /**
+     * Rebuild the snapshot and overwrite the cached one ahead of its expiry;
+     * the self-invocation bypasses the {@code @Cacheable} lookup
+     */
+    @CachePut(value = CACHE_NAME, key = "#productId")
+    @Transactional(readOnly = true)
+    public ProductResponse refreshProduct(UUID productId) {
+        return getProduct(productId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.config.ProductEngagementEvent;
+import com.winnguyen1905.product.persistance.repository.EnhancedProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lifetime view counts of products. A view only bumps an in-memory counter;
+ * the accumulated counts are added to {@code viewCount} on a fixed delay, one
+ * UPDATE per viewed product, so the product page never writes to the
+ * database and views of a hot product do not queue on its row. Each instance
+ * flushes its own counts; views recorded since the last flush are lost if
+ * the instance dies, which the popularity rankings fed by the same events do
+ * not depend on.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductViewCounter {
+
+    private final EnhancedProductRepository productRepository;
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onEngagement(ProductEngagementEvent event) {
+        if (event.getType() == ProductEngagementEvent.Type.VIEW) {
+            record(event.getProductId());
+        }
+    }
+
+    public void record(UUID productId) {
+        if (productId != null) {
+            pending.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.view-count.flush-interval-ms:30000}")
+    public void flush() {
+        int flushed = 0;
+        for (UUID productId : pending.keySet()) {
+            LongAdder counter = pending.remove(productId);
+            long views = counter != null ? counter.sum() : 0;
+            if (views == 0) {
+                continue;
+            }
+            try {
+                productRepository.addViewCount(productId, views);
+                flushed++;
+            } catch (Exception e) {
+                // Put the views back for the next flush
+                pending.computeIfAbsent(productId, id -> new LongAdder()).add(views);
+                log.warn("Failed to flush {} views of product {}: {}", views, productId, e.getMessage());
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Flushed view counts of {} products", flushed);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
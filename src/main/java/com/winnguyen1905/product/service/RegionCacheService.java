@@ -3,6 +3,8 @@ package com.winnguyen1905.product.service;
 import com.winnguyen1905.product.secure.RegionPartition;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -23,6 +25,9 @@ public class RegionCacheService {
     private static final String IP_REGION_PREFIX = "ip:region:";
     private static final String SESSION_REGION_PREFIX = "session:region:";
 
+    // Keys counted per prefix for the stats; beyond it the count is a lower bound
+    private static final long STATS_SCAN_LIMIT = 100_000;
+
     /**
      * Get cached region for IP address from Redis
      */
@@ -112,20 +117,35 @@ public class RegionCacheService {
     }
 
     /**
-     * Get cache statistics for monitoring
+     * Get cache statistics for monitoring: the number of IP and session
+     * region mappings, counted with SCAN so Redis is never blocked
      */
     public CacheStats getCacheStats() {
         try {
-            // Simple implementation to count keys with our prefixes
-            // Note: In production, you might want to use Redis commands like SCAN
-            return new CacheStats(true, "Cache connection healthy");
+            long ipRegions = countKeys(IP_REGION_PREFIX);
+            long sessionRegions = countKeys(SESSION_REGION_PREFIX);
+            return new CacheStats(true, "Cache connection healthy", ipRegions, sessionRegions);
         } catch (Exception e) {
             log.error("Error getting cache stats: {}", e.getMessage());
-            return new CacheStats(false, "Cache connection failed: " + e.getMessage());
+            return new CacheStats(false, "Cache connection failed: " + e.getMessage(), -1, -1);
         }
     }
 
     // Helper methods
+    private long countKeys(String prefix) {
+        long count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(prefix + "*")
+                .count(1000)
+                .build())) {
+            while (cursor.hasNext() && count < STATS_SCAN_LIMIT) {
+                cursor.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
     private String getIpRegionKey(String ip) {
         return IP_REGION_PREFIX + ip;
     }
@@ -152,5 +172,5 @@ public class RegionCacheService {
     /**
      * Cache statistics record
      */
-    public record CacheStats(boolean isHealthy, String message) {}
+    public record CacheStats(boolean isHealthy, String message, long ipRegionKeys, long sessionRegionKeys) {}
 } 
@@ -0,0 +1,73 @@
+package com.winnguyen1905.product.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis lock for scheduled jobs that must run on one instance at a time. Every
+ * instance fires its own {@code @Scheduled} trigger; the one that takes the
+ * lock runs the job and the others skip that cycle. The TTL bounds how long a
+ * crashed holder blocks the job. When Redis is unreachable the job is skipped,
+ * since running it everywhere is what the lock exists to prevent.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ScheduledJobLock {
+
+    private static final String LOCK_PREFIX = "job-lock:";
+
+    // Delete the lock only if it is still ours; it may have expired and been taken over
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Take the lock of a job without waiting. Returns the token to release it
+     * with, or null if another instance holds it or Redis is unavailable.
+     */
+    public String tryLock(String job, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + job, token, ttl);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            log.warn("Could not take the lock of job {}, skipping this run: {}", job, e.getMessage());
+            return null;
+        }
+    }
+
+    public void unlock(String job, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_PREFIX + job), token);
+        } catch (Exception e) {
+            log.debug("Failed to release the lock of job {}, it expires on its own: {}", job, e.getMessage());
+        }
+    }
+
+    /**
+     * Run the job here if no other instance is running it. Returns whether it ran.
+     */
+    public boolean runExclusively(String job, Duration ttl, Runnable task) {
+        String token = tryLock(job, ttl);
+        if (token == null) {
+            log.debug("Job {} is running elsewhere, skipping", job);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            unlock(job, token);
+        }
+    }
+}
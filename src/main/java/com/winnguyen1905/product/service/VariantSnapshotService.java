@@ -0,0 +1,75 @@
+package com.winnguyen1905.product.service;
+
+import com.winnguyen1905.product.config.cache.TieredCache;
+import com.winnguyen1905.product.core.mapper_v2.ProductMapper;
+import com.winnguyen1905.product.core.model.response.ProductVariantSnapshot;
+import com.winnguyen1905.product.persistance.repository.ProductVariantRepository;
+import com.winnguyen1905.product.util.CommonUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of variant snapshots for the multi-item paths (variant details,
+ * availability checks). A batch of ids costs one L2 round-trip plus, for the
+ * misses, one database query and one pipelined write, instead of a lookup per
+ * item. Writers evict the {@code product-variants} entries of the variants
+ * they change; inside a transaction the eviction waits for the commit.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VariantSnapshotService {
+
+    public static final String CACHE_NAME = "product-variants";
+
+    private final ProductVariantRepository productVariantRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Snapshots of the given variants; ids that do not exist are left out
+     */
+    public Map<UUID, ProductVariantSnapshot> getVariants(Collection<UUID> variantIds) {
+        Set<UUID> ids = new LinkedHashSet<>(variantIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache instanceof TieredCache tieredCache) {
+            return tieredCache.getAll(ids, this::loadVariants);
+        }
+        return loadVariants(ids);
+    }
+
+    /**
+     * Evict the snapshots once the current transaction commits, or right away
+     * outside of one
+     */
+    public void evict(Collection<UUID> variantIds) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null && !variantIds.isEmpty()) {
+            Set<UUID> ids = new LinkedHashSet<>(variantIds);
+            CommonUtils.afterCommit(() -> ids.forEach(cache::evict));
+        }
+    }
+
+    private Map<UUID, ProductVariantSnapshot> loadVariants(Set<UUID> ids) {
+        log.debug("Loading {} variant snapshots", ids.size());
+        return productVariantRepository.findAllWithProductByIdIn(ids).stream()
+                .map(ProductMapper::toProductVariantSnapshot)
+                .collect(Collectors.toMap(ProductVariantSnapshot::id, Function.identity(), (a, b) -> a,
+                        HashMap::new));
+    }
+}
@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -16,6 +18,9 @@ import reactor.core.publisher.Mono;
 
 @Slf4j
 public class CommonUtils {
+  /** Escape character for patterns built by {@link #containsPattern(String)} */
+  public static final char LIKE_ESCAPE = '!';
+
   public static <T> Stream<T> stream(Collection<T> collection) {
     if (CollectionUtils.isEmpty(collection)) {
       return Stream.empty();
@@ -24,6 +29,39 @@ public class CommonUtils {
     }
   }
 
+  /**
+   * LIKE pattern matching the term anywhere, with the term's own %, _ and
+   * escape characters matched literally. Use with {@code ESCAPE '!'}.
+   */
+  public static String containsPattern(String term) {
+    StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+    for (char c : term.toCharArray()) {
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        pattern.append(LIKE_ESCAPE);
+      }
+      pattern.append(c);
+    }
+    return pattern.append('%').toString();
+  }
+
+  /**
+   * Run the action once the current transaction commits, or right away when
+   * there is none. For cache evictions: evicting before commit lets a
+   * concurrent read cache the old row again.
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
   public static Object convertKeyValueToObject(Object keyValueObject) {
     ObjectMapper objectMapper = new ObjectMapper(); 
     String jsonString = keyValueObject.toString();
@@ -1,10 +1,12 @@
 package com.winnguyen1905.product.util;
 
+import com.winnguyen1905.product.config.InventoryChangedEvent;
 import com.winnguyen1905.product.exception.InventoryException;
 import com.winnguyen1905.product.exception.OptimisticLockingException;
 import com.winnguyen1905.product.persistance.entity.EInventory;
 import com.winnguyen1905.product.persistance.repository.InventoryRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,9 +25,11 @@ public class InventoryLockingUtils {
     private static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
     
     private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public InventoryLockingUtils(InventoryRepository inventoryRepository) {
+    public InventoryLockingUtils(InventoryRepository inventoryRepository, ApplicationEventPublisher eventPublisher) {
         this.inventoryRepository = inventoryRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -112,7 +116,7 @@ public class InventoryLockingUtils {
                 .orElseThrow(() -> new InventoryException("Inventory not found with id: " + id));
         
         inventory = updateFunction.apply(inventory);
-        return inventoryRepository.save(inventory);
+        return saveAndPublish(inventory);
     }
     
     @Transactional
@@ -121,6 +125,12 @@ public class InventoryLockingUtils {
                 .orElseThrow(() -> new InventoryException("Inventory not found with SKU: " + sku));
         
         inventory = updateFunction.apply(inventory);
-        return inventoryRepository.save(inventory);
+        return saveAndPublish(inventory);
+    }
+    
+    private EInventory saveAndPublish(EInventory inventory) {
+        EInventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(saved));
+        return saved;
     }
 } 
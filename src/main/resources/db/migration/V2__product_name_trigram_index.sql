@@ -0,0 +1,4 @@
+-- Built without blocking writes to products. CONCURRENTLY cannot run inside a
+-- transaction, so Flyway runs this script on its own, outside one.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_name_trgm
+    ON products USING GIN (product_name gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Expression index instead of a stored generated column, so no table rewrite
+-- is needed. The expression must match EnhancedProductRepository.SEARCH_VECTOR.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_search_vector
+    ON products USING GIN ((to_tsvector('simple', COALESCE(product_name, '') || ' ' ||
+        COALESCE(tags, '') || ' ' || COALESCE(product_description, ''))));
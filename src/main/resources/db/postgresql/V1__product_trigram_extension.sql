@@ -0,0 +1,3 @@
+-- Trigram operators and GIN operator class for product name search.
+-- CockroachDB has them built in and accepts this as a no-op.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
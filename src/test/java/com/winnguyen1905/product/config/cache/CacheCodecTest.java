@@ -0,0 +1,83 @@
+package com.winnguyen1905.product.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.winnguyen1905.product.config.cache.CachePolicyProperties.Serializer;
+import com.winnguyen1905.product.core.model.response.ProductResponse;
+import com.winnguyen1905.product.core.model.response.ProductVariantResponse;
+
+class CacheCodecTest {
+
+  @ParameterizedTest
+  @CsvSource({ "JSON, false", "JSON, true", "SMILE, false", "SMILE, true" })
+  void productSnapshotWithBigDecimalsRoundTrips(Serializer format, boolean compression) {
+    CacheCodec codec = new CacheCodec(format, compression, 0);
+    CacheEntry entry = new CacheEntry(productSnapshot(), 12, Long.MAX_VALUE);
+
+    Object decoded = codec.deserialize(codec.serialize(entry));
+
+    assertThat(decoded).isEqualTo(entry);
+    ProductResponse product = (ProductResponse) ((CacheEntry) decoded).value();
+    assertThat(product.minPrice()).isEqualByComparingTo("19.99");
+    assertThat(product.weight()).isEqualByComparingTo("0.35");
+  }
+
+  @Test
+  void numbersInUntypedFieldsRoundTrip() {
+    CacheCodec codec = new CacheCodec(Serializer.SMILE, false, 0);
+    Map<String, Object> features = new LinkedHashMap<>();
+    features.put("battery", 40L);
+    features.put("rating", new BigDecimal("4.60"));
+    features.put("anc", true);
+
+    assertThat(codec.deserialize(codec.serialize(features))).isEqualTo(features);
+  }
+
+  @Test
+  void retiredJavaSerializationFormatReadsAsMiss() {
+    // Header naming format id 1, formerly Java serialization
+    byte[] legacy = { (byte) 0xCA, 1, 1, 0, (byte) 0xAC, (byte) 0xED, 0, 5 };
+
+    assertThat(new CacheCodec(Serializer.SMILE, false, 0).deserialize(legacy)).isNull();
+  }
+
+  private static ProductResponse productSnapshot() {
+    UUID productId = UUID.randomUUID();
+    ProductVariantResponse variant = ProductVariantResponse.builder()
+        .id(UUID.randomUUID())
+        .sku("SKU-1001")
+        .name("Wireless Headphones Pro - Black")
+        .price(new BigDecimal("19.99"))
+        .compareAtPrice(new BigDecimal("24.50"))
+        .weight(new BigDecimal("0.35"))
+        .productId(productId)
+        .createdDate(Instant.parse("2024-05-01T10:15:30.123456Z"))
+        .build();
+
+    return ProductResponse.builder()
+        .id(productId)
+        .name("Wireless Headphones Pro")
+        .minPrice(new BigDecimal("19.99"))
+        .maxPrice(new BigDecimal("249.00"))
+        .basePrice(new BigDecimal("199"))
+        .weight(new BigDecimal("0.35"))
+        .ratingAverage(new BigDecimal("4.6"))
+        .viewCount(120_000L)
+        .features(new LinkedHashMap<>(Map.of("bluetooth", "5.3", "anc", true)))
+        .createdDate(Instant.parse("2024-05-01T10:15:30.123456Z"))
+        .variants(new ArrayList<>(List.of(variant)))
+        .build();
+  }
+}
@@ -0,0 +1,116 @@
+package com.winnguyen1905.product.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.winnguyen1905.product.config.RegionalFallbackConfiguration;
+import com.winnguyen1905.product.core.elasticsearch.query.ProductSearchQuery;
+import com.winnguyen1905.product.core.elasticsearch.query.SearchProjection;
+import com.winnguyen1905.product.core.elasticsearch.repository.ProductElasticsearchRepository;
+import com.winnguyen1905.product.core.elasticsearch.service.LocalProductSearchIndex;
+import com.winnguyen1905.product.core.elasticsearch.service.ProductDocumentMapper;
+import com.winnguyen1905.product.core.elasticsearch.service.ProductSearchService;
+import com.winnguyen1905.product.core.elasticsearch.service.SearchRequestCoalescer;
+import com.winnguyen1905.product.core.elasticsearch.service.SimilarProductsService;
+import com.winnguyen1905.product.core.model.request.SearchProductRequest;
+import com.winnguyen1905.product.core.model.viewmodel.PagedResponse;
+import com.winnguyen1905.product.core.model.viewmodel.ProductVariantReviewVm;
+import com.winnguyen1905.product.core.service.InventoryService;
+import com.winnguyen1905.product.persistance.repository.InventoryRepository;
+import com.winnguyen1905.product.persistance.repository.ProductRepository;
+import com.winnguyen1905.product.persistance.repository.ProductVariantRepository;
+import com.winnguyen1905.product.service.NegativeCacheService;
+import com.winnguyen1905.product.service.VariantSnapshotService;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CustomerProductServiceImplTest {
+
+  private final SearchProductRequest request = SearchProductRequest.builder()
+      .keyword("phone")
+      .pagination(new SearchProductRequest.Pagination(0, 10))
+      .build();
+
+  private final PagedResponse<ProductVariantReviewVm> localResults = PagedResponse.<ProductVariantReviewVm>builder()
+      .content(List.of())
+      .pageNumber(0)
+      .pageSize(10)
+      .totalElements(3)
+      .totalPages(1)
+      .isLastPage(true)
+      .build();
+
+  private ProductSearchQuery productSearchQuery;
+  private LocalProductSearchIndex localProductSearchIndex;
+  private CircuitBreakerRegistry circuitBreakerRegistry;
+  private CustomerProductServiceImpl customerProductService;
+
+  @BeforeEach
+  void setUp() {
+    productSearchQuery = mock(ProductSearchQuery.class);
+    when(productSearchQuery.executeSearch(any(SearchProductRequest.class), any(SearchProjection.class)))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+    // Real search service and breaker, so the failure travels the same path as in production
+    ProductSearchService productSearchService = new ProductSearchService(
+        mock(ProductElasticsearchRepository.class),
+        productSearchQuery,
+        mock(ProductDocumentMapper.class),
+        mock(SimilarProductsService.class),
+        new SearchRequestCoalescer(new SimpleMeterRegistry()));
+    circuitBreakerRegistry = new RegionalFallbackConfiguration().circuitBreakerRegistry();
+
+    localProductSearchIndex = mock(LocalProductSearchIndex.class);
+    when(localProductSearchIndex.isReady()).thenReturn(true);
+    when(localProductSearchIndex.search(request)).thenReturn(localResults);
+
+    customerProductService = new CustomerProductServiceImpl(
+        mock(ProductRepository.class),
+        mock(ProductVariantRepository.class),
+        productSearchService,
+        mock(InventoryRepository.class),
+        mock(InventoryService.class),
+        mock(ApplicationEventPublisher.class),
+        circuitBreakerRegistry,
+        localProductSearchIndex,
+        mock(VariantSnapshotService.class),
+        mock(NegativeCacheService.class));
+  }
+
+  @Test
+  void searchFallsBackToLocalIndexWhenElasticsearchFails() {
+    PagedResponse<ProductVariantReviewVm> response = customerProductService.searchProducts(request);
+
+    assertThat(response).isSameAs(localResults);
+    assertThat(searchCircuitBreaker().getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+  }
+
+  @Test
+  void repeatedFailuresOpenTheBreakerAndKeepServingLocalResults() {
+    for (int i = 0; i < 6; i++) {
+      assertThat(customerProductService.searchProducts(request)).isSameAs(localResults);
+    }
+
+    assertThat(searchCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    // The sixth call is refused by the open breaker and never reaches the cluster
+    verify(productSearchQuery, times(5)).executeSearch(any(SearchProductRequest.class), any(SearchProjection.class));
+    verify(localProductSearchIndex, times(6)).search(request);
+  }
+
+  private CircuitBreaker searchCircuitBreaker() {
+    return circuitBreakerRegistry.circuitBreaker(RegionalFallbackConfiguration.SEARCH_CIRCUIT_BREAKER);
+  }
+}